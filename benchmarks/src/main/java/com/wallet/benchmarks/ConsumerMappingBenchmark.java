@@ -0,0 +1,46 @@
+package com.wallet.benchmarks;
+
+import com.wallet.events.TransferCompletedEvent;
+import com.wallet.events.WalletCreatedEvent;
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletFundedEvent;
+import com.wallet.common.id.UuidV7Generator;
+import com.wallet.history.kafka.TransactionEventMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The history consumer's event-to-row mapping ({@link TransactionEventMapper}),
+ * including id generation and the {@code eventData} maps.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumerMappingBenchmark {
+    
+    @Param({"WALLET_CREATED", "WALLET_FUNDED", "TRANSFER_COMPLETED"})
+    public String eventType;
+    
+    private TransactionEventMapper mapper;
+    private WalletEvent event;
+    
+    @Setup
+    public void setUp() {
+        mapper = new TransactionEventMapper(new UuidV7Generator());
+        event = Events.event(eventType);
+    }
+    
+    @Benchmark
+    public Object map() {
+        if (event instanceof WalletCreatedEvent) {
+            return mapper.walletCreated((WalletCreatedEvent) event);
+        } else if (event instanceof WalletFundedEvent) {
+            return mapper.walletFunded((WalletFundedEvent) event);
+        }
+        return mapper.transferCompleted((TransferCompletedEvent) event);
+    }
+}
@@ -0,0 +1,61 @@
+package com.wallet.benchmarks;
+
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletEventDeserializer;
+import com.wallet.events.WalletEventSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka encoding and decoding of wallet events with the shared binary
+ * codec, through the same {@link WalletEventSerializer} and
+ * {@link WalletEventDeserializer} the services use.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+    
+    private static final String TOPIC = "wallet_events";
+    
+    @Param({"WALLET_CREATED", "WALLET_FUNDED", "TRANSFER_COMPLETED"})
+    public String eventType;
+    
+    private WalletEventSerializer serializer;
+    private WalletEventDeserializer deserializer;
+    private WalletEvent event;
+    private byte[] encoded;
+    
+    @Setup
+    public void setUp() {
+        serializer = new WalletEventSerializer();
+        deserializer = new WalletEventDeserializer();
+        event = Events.event(eventType);
+        encoded = serializer.serialize(TOPIC, event);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+    
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(TOPIC, event);
+    }
+    
+    @Benchmark
+    public WalletEvent decode() {
+        return deserializer.deserialize(TOPIC, encoded);
+    }
+    
+    @Benchmark
+    public WalletEvent roundTrip() {
+        return deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+    }
+}
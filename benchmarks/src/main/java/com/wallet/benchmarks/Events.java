@@ -0,0 +1,47 @@
+package com.wallet.benchmarks;
+
+import com.wallet.events.TransferCompletedEvent;
+import com.wallet.events.WalletCreatedEvent;
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletFundedEvent;
+
+import java.util.UUID;
+
+// Representative events for the serialization and mapping benchmarks
+final class Events {
+    
+    private static final long AMOUNT = 12_3400L;  // 12.34
+    
+    private Events() {}
+    
+    static WalletEvent event(String eventType) {
+        WalletEvent event;
+        switch (eventType) {
+            case "WALLET_CREATED":
+                event = new WalletCreatedEvent();
+                break;
+            case "WALLET_FUNDED": {
+                WalletFundedEvent funded = new WalletFundedEvent();
+                funded.setAmountMinor(AMOUNT);
+                funded.setTransactionId(UUID.randomUUID().toString());
+                event = funded;
+                break;
+            }
+            case "TRANSFER_COMPLETED": {
+                TransferCompletedEvent transfer = new TransferCompletedEvent();
+                transfer.setFromWalletId(UUID.randomUUID().toString());
+                transfer.setToWalletId(UUID.randomUUID().toString());
+                transfer.setAmountMinor(AMOUNT);
+                transfer.setTransactionId(UUID.randomUUID().toString());
+                event = transfer;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown event type: " + eventType);
+        }
+        event.setEventId(UUID.randomUUID().toString());
+        event.setWalletId(UUID.randomUUID().toString());
+        event.setUserId("bench-user");
+        return event;
+    }
+}
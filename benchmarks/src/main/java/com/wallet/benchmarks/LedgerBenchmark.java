@@ -0,0 +1,56 @@
+package com.wallet.benchmarks;
+
+import com.wallet.service.entity.Wallet;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory balance arithmetic on {@link Wallet}: the long minor-unit
+ * path used by the ledger, and the BigDecimal overloads used at the edges.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBenchmark {
+    
+    private static final long AMOUNT = 12_3400L;  // 12.34
+    private static final BigDecimal DECIMAL_AMOUNT = new BigDecimal("12.34");
+    
+    private Wallet wallet;
+    
+    // Start mid-range so neither direction can run out within an iteration
+    @Setup(Level.Iteration)
+    public void setUp() {
+        wallet = new Wallet("bench-wallet", "bench-user");
+        wallet.addFunds(Long.MAX_VALUE / 2);
+    }
+    
+    @Benchmark
+    public long addFunds() {
+        wallet.addFunds(AMOUNT);
+        return wallet.getBalanceMinor();
+    }
+    
+    @Benchmark
+    public long deduct() {
+        wallet.deduct(AMOUNT);
+        return wallet.getBalanceMinor();
+    }
+    
+    @Benchmark
+    public long addFundsDecimal() {
+        wallet.addFunds(DECIMAL_AMOUNT);
+        return wallet.getBalanceMinor();
+    }
+    
+    @Benchmark
+    public long deductDecimal() {
+        wallet.deduct(DECIMAL_AMOUNT);
+        return wallet.getBalanceMinor();
+    }
+}
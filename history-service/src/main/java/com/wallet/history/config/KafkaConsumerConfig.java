@@ -1,6 +1,7 @@
 package com.wallet.history.config;
 
-import com.wallet.history.event.WalletEvent;
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletEventDeserializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,8 +12,9 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,6 +29,9 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
     
+    @Value("${history.kafka.max-poll-records:500}")
+    private int maxPollRecords;
+    
     @Bean
     public ConsumerFactory<String, WalletEvent> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
@@ -35,16 +40,14 @@ public class KafkaConsumerConfig {
         config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);  // Manual commit
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);  // Upper bound on a listener batch
         
         // Key deserializer
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         
-        // Value deserializer with error handling
+        // Value deserializer (binary WalletEventCodec, no reflection) with error handling
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
-        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, WalletEvent.class.getName());
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, WalletEventDeserializer.class.getName());
         
         return new DefaultKafkaConsumerFactory<>(config);
     }
@@ -56,11 +59,16 @@ public class KafkaConsumerConfig {
         
         factory.setConsumerFactory(consumerFactory());
         
-        // Manual acknowledgment mode
+        // Whole poll results go to the listener as one List; one manual ack per batch
+        factory.setBatchListener(true);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         
-        // Concurrency: number of consumer threads
-        factory.setConcurrency(1);  // Start with 1, increase if needed
+        // A record the listener reports by index is retried twice, then logged and skipped;
+        // records before it are committed, records after it are redelivered
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 2L)));
+        
+        // One consumer thread; each batch fans out to history.kafka.workers lanes by wallet id
+        factory.setConcurrency(1);
         
         return factory;
     }
@@ -1,58 +1,129 @@
 package com.wallet.history.controller;
 
+import com.wallet.history.dto.DailySummaryResponse;
+import com.wallet.history.dto.TransactionEventPageResponse;
 import com.wallet.history.dto.TransactionEventResponse;
+import com.wallet.history.dto.WalletSummaryResponse;
 import com.wallet.history.entity.TransactionEvent;
+import com.wallet.history.entity.WalletDailySummary;
+import com.wallet.history.service.ExportFormat;
+import com.wallet.history.service.HistoryExportService;
+import com.wallet.history.service.HistoryPage;
 import com.wallet.history.service.HistoryService;
+import com.wallet.history.service.WalletSummary;
+import com.wallet.history.service.WalletSummaryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * History listings, newest first, one page at a time. Follow
+ * {@code nextCursor} (as {@code ?cursor=}) until it comes back null.
+ * The {@code /export} variants stream the whole history instead, oldest
+ * first, as NDJSON (default) or CSV. {@code /summary} serves per-day
+ * totals from the daily projection.
+ */
 @RestController
 @RequestMapping("/api")
 public class HistoryController {
     
+    private static final String DEFAULT_LIMIT = "50";
+    
     private final HistoryService historyService;
+    private final HistoryExportService exportService;
+    private final WalletSummaryService summaryService;
     
-    public HistoryController(HistoryService historyService) {
+    public HistoryController(HistoryService historyService, HistoryExportService exportService,
+                             WalletSummaryService summaryService) {
         this.historyService = historyService;
+        this.exportService = exportService;
+        this.summaryService = summaryService;
     }
     
     @GetMapping("/wallets/{walletId}/history")
-    public ResponseEntity<List<TransactionEventResponse>> getWalletHistory(
-            @PathVariable String walletId) {
+    public ResponseEntity<TransactionEventPageResponse> getWalletHistory(
+            @PathVariable String walletId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
         
-        List<TransactionEvent> events = historyService.getWalletHistory(walletId);
-        List<TransactionEventResponse> responses = events.stream()
+        return ResponseEntity.ok(toResponse(historyService.getWalletHistory(walletId, cursor, limit)));
+    }
+    
+    // from and to are inclusive ISO dates, e.g. ?from=2026-01-01&to=2026-01-31
+    @GetMapping("/wallets/{walletId}/summary")
+    public ResponseEntity<WalletSummaryResponse> getWalletSummary(
+            @PathVariable String walletId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        
+        WalletSummary summary = summaryService.getSummary(walletId, from, to);
+        List<DailySummaryResponse> days = summary.getDays().stream()
             .map(this::toResponse)
             .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok(new WalletSummaryResponse(walletId, from, to, toResponse(summary.getTotals()), days));
     }
     
     @GetMapping("/users/{userId}/activity")
-    public ResponseEntity<List<TransactionEventResponse>> getUserActivity(
-            @PathVariable String userId) {
+    public ResponseEntity<TransactionEventPageResponse> getUserActivity(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
         
-        List<TransactionEvent> events = historyService.getUserActivity(userId);
-        List<TransactionEventResponse> responses = events.stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
+        return ResponseEntity.ok(toResponse(historyService.getUserActivity(userId, cursor, limit)));
+    }
+    
+    @GetMapping("/wallets/{walletId}/history/export")
+    public ResponseEntity<StreamingResponseBody> exportWalletHistory(
+            @PathVariable String walletId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return export("wallet-" + walletId + "-history", exportFormat,
+            exportService.exportWalletHistory(walletId, exportFormat));
+    }
+    
+    @GetMapping("/users/{userId}/activity/export")
+    public ResponseEntity<StreamingResponseBody> exportUserActivity(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "ndjson") String format) {
         
-        return ResponseEntity.ok(responses);
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return export("user-" + userId + "-activity", exportFormat,
+            exportService.exportUserActivity(userId, exportFormat));
     }
     
     @GetMapping("/events/type/{eventType}")
-    public ResponseEntity<List<TransactionEventResponse>> getEventsByType(
-            @PathVariable String eventType) {
+    public ResponseEntity<TransactionEventPageResponse> getEventsByType(
+            @PathVariable String eventType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
         
-        List<TransactionEvent> events = historyService.getEventsByType(eventType);
-        List<TransactionEventResponse> responses = events.stream()
+        return ResponseEntity.ok(toResponse(historyService.getEventsByType(eventType, cursor, limit)));
+    }
+    
+    private ResponseEntity<StreamingResponseBody> export(String name, ExportFormat format,
+                                                         StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+            .filename(name + "." + format.getExtension())
+            .build();
+        return ResponseEntity.ok()
+            .contentType(format.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .body(body);
+    }
+    
+    private TransactionEventPageResponse toResponse(HistoryPage page) {
+        List<TransactionEventResponse> events = page.getEvents().stream()
             .map(this::toResponse)
             .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(responses);
+        return new TransactionEventPageResponse(events, page.getNextCursor());
     }
     
     private TransactionEventResponse toResponse(TransactionEvent event) {
@@ -67,4 +138,18 @@ public class HistoryController {
             event.getEventData()
         );
     }
-}
\ No newline at end of file
+    
+    private DailySummaryResponse toResponse(WalletDailySummary summary) {
+        return new DailySummaryResponse(
+            summary.getDay(),
+            summary.getCreditsCount(),
+            summary.getCreditsSum(),
+            summary.getDebitsCount(),
+            summary.getDebitsSum(),
+            summary.getTransfersInCount(),
+            summary.getTransfersInSum(),
+            summary.getTransfersOutCount(),
+            summary.getTransfersOutSum()
+        );
+    }
+}
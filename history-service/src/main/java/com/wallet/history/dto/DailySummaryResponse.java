@@ -0,0 +1,62 @@
+package com.wallet.history.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DailySummaryResponse {
+    
+    private LocalDate day;  // null on the range totals
+    private long creditsCount;
+    private BigDecimal creditsSum;
+    private long debitsCount;
+    private BigDecimal debitsSum;
+    private long transfersInCount;
+    private BigDecimal transfersInSum;
+    private long transfersOutCount;
+    private BigDecimal transfersOutSum;
+    
+    public DailySummaryResponse() {}
+    
+    public DailySummaryResponse(LocalDate day, long creditsCount, BigDecimal creditsSum,
+                                long debitsCount, BigDecimal debitsSum,
+                                long transfersInCount, BigDecimal transfersInSum,
+                                long transfersOutCount, BigDecimal transfersOutSum) {
+        this.day = day;
+        this.creditsCount = creditsCount;
+        this.creditsSum = creditsSum;
+        this.debitsCount = debitsCount;
+        this.debitsSum = debitsSum;
+        this.transfersInCount = transfersInCount;
+        this.transfersInSum = transfersInSum;
+        this.transfersOutCount = transfersOutCount;
+        this.transfersOutSum = transfersOutSum;
+    }
+    
+    // Getters and setters
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    
+    public long getCreditsCount() { return creditsCount; }
+    public void setCreditsCount(long creditsCount) { this.creditsCount = creditsCount; }
+    
+    public BigDecimal getCreditsSum() { return creditsSum; }
+    public void setCreditsSum(BigDecimal creditsSum) { this.creditsSum = creditsSum; }
+    
+    public long getDebitsCount() { return debitsCount; }
+    public void setDebitsCount(long debitsCount) { this.debitsCount = debitsCount; }
+    
+    public BigDecimal getDebitsSum() { return debitsSum; }
+    public void setDebitsSum(BigDecimal debitsSum) { this.debitsSum = debitsSum; }
+    
+    public long getTransfersInCount() { return transfersInCount; }
+    public void setTransfersInCount(long transfersInCount) { this.transfersInCount = transfersInCount; }
+    
+    public BigDecimal getTransfersInSum() { return transfersInSum; }
+    public void setTransfersInSum(BigDecimal transfersInSum) { this.transfersInSum = transfersInSum; }
+    
+    public long getTransfersOutCount() { return transfersOutCount; }
+    public void setTransfersOutCount(long transfersOutCount) { this.transfersOutCount = transfersOutCount; }
+    
+    public BigDecimal getTransfersOutSum() { return transfersOutSum; }
+    public void setTransfersOutSum(BigDecimal transfersOutSum) { this.transfersOutSum = transfersOutSum; }
+}
@@ -0,0 +1,23 @@
+package com.wallet.history.dto;
+
+import java.util.List;
+
+public class TransactionEventPageResponse {
+    
+    private List<TransactionEventResponse> events;
+    private String nextCursor;  // Pass back as ?cursor= for the next page; null when done
+    
+    public TransactionEventPageResponse() {}
+    
+    public TransactionEventPageResponse(List<TransactionEventResponse> events, String nextCursor) {
+        this.events = events;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and setters
+    public List<TransactionEventResponse> getEvents() { return events; }
+    public void setEvents(List<TransactionEventResponse> events) { this.events = events; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,40 @@
+package com.wallet.history.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class WalletSummaryResponse {
+    
+    private String walletId;
+    private LocalDate from;
+    private LocalDate to;
+    private DailySummaryResponse totals;
+    private List<DailySummaryResponse> days;  // Only days with activity, oldest first
+    
+    public WalletSummaryResponse() {}
+    
+    public WalletSummaryResponse(String walletId, LocalDate from, LocalDate to,
+                                 DailySummaryResponse totals, List<DailySummaryResponse> days) {
+        this.walletId = walletId;
+        this.from = from;
+        this.to = to;
+        this.totals = totals;
+        this.days = days;
+    }
+    
+    // Getters and setters
+    public String getWalletId() { return walletId; }
+    public void setWalletId(String walletId) { this.walletId = walletId; }
+    
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    
+    public DailySummaryResponse getTotals() { return totals; }
+    public void setTotals(DailySummaryResponse totals) { this.totals = totals; }
+    
+    public List<DailySummaryResponse> getDays() { return days; }
+    public void setDays(List<DailySummaryResponse> days) { this.days = days; }
+}
@@ -12,6 +12,11 @@ import java.util.Map;
 @Table(name = "transaction_events")
 public class TransactionEvent {
     
+    // direction values; with transaction_id they form the dedupe key
+    public static final String DIRECTION_NONE = "NONE";  // single-row events
+    public static final String DIRECTION_OUT = "OUT";    // sender's row of a transfer
+    public static final String DIRECTION_IN = "IN";      // receiver's row of a transfer
+    
     @Id
     private String id;
     
@@ -27,9 +32,12 @@ public class TransactionEvent {
     @Column(name = "event_type", nullable = false, length = 30)
     private String eventType;
     
-    @Column(name = "transaction_id")
+    @Column(name = "transaction_id", nullable = false)
     private String transactionId;
     
+    @Column(nullable = false, length = 4)
+    private String direction;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
     
@@ -42,13 +50,21 @@ public class TransactionEvent {
     public TransactionEvent(String id, String walletId, String userId, 
                           BigDecimal amount, String eventType, 
                           String transactionId, Map<String, Object> eventData) {
+        this(id, walletId, userId, amount, eventType, transactionId, DIRECTION_NONE, Instant.now(), eventData);
+    }
+    
+    public TransactionEvent(String id, String walletId, String userId, 
+                          BigDecimal amount, String eventType, 
+                          String transactionId, String direction,
+                          Instant createdAt, Map<String, Object> eventData) {
         this.id = id;
         this.walletId = walletId;
         this.userId = userId;
         this.amount = amount;
         this.eventType = eventType;
         this.transactionId = transactionId;
-        this.createdAt = Instant.now();
+        this.direction = direction;
+        this.createdAt = createdAt;
         this.eventData = eventData;
     }
     
@@ -59,6 +75,7 @@ public class TransactionEvent {
     public BigDecimal getAmount() { return amount; }
     public String getEventType() { return eventType; }
     public String getTransactionId() { return transactionId; }
+    public String getDirection() { return direction; }
     public Instant getCreatedAt() { return createdAt; }
     public Map<String, Object> getEventData() { return eventData; }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.wallet.history.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of wallet_daily_summaries: a wallet's counts and sums for one
+ * day. Also used as the delta the consumer adds to that row, and as the
+ * running total over a range.
+ *
+ * Credits are all money in (funding and incoming transfers), debits all
+ * money out; the transfer columns break out the transfer part of each.
+ * Sums are positive amounts.
+ */
+public class WalletDailySummary {
+    
+    private final String walletId;
+    private final LocalDate day;
+    private long creditsCount;
+    private BigDecimal creditsSum = BigDecimal.ZERO;
+    private long debitsCount;
+    private BigDecimal debitsSum = BigDecimal.ZERO;
+    private long transfersInCount;
+    private BigDecimal transfersInSum = BigDecimal.ZERO;
+    private long transfersOutCount;
+    private BigDecimal transfersOutSum = BigDecimal.ZERO;
+    
+    public WalletDailySummary(String walletId, LocalDate day) {
+        this.walletId = walletId;
+        this.day = day;
+    }
+    
+    public WalletDailySummary(String walletId, LocalDate day,
+                              long creditsCount, BigDecimal creditsSum,
+                              long debitsCount, BigDecimal debitsSum,
+                              long transfersInCount, BigDecimal transfersInSum,
+                              long transfersOutCount, BigDecimal transfersOutSum) {
+        this.walletId = walletId;
+        this.day = day;
+        this.creditsCount = creditsCount;
+        this.creditsSum = creditsSum;
+        this.debitsCount = debitsCount;
+        this.debitsSum = debitsSum;
+        this.transfersInCount = transfersInCount;
+        this.transfersInSum = transfersInSum;
+        this.transfersOutCount = transfersOutCount;
+        this.transfersOutSum = transfersOutSum;
+    }
+    
+    // Counts one history row; rows that move no money (WALLET_CREATED) are ignored
+    public void record(TransactionEvent event) {
+        BigDecimal amount = event.getAmount().abs();
+        if ("WALLET_FUNDED".equals(event.getEventType())) {
+            creditsCount++;
+            creditsSum = creditsSum.add(amount);
+        } else if ("TRANSFER_COMPLETED".equals(event.getEventType())) {
+            if (TransactionEvent.DIRECTION_IN.equals(event.getDirection())) {
+                creditsCount++;
+                creditsSum = creditsSum.add(amount);
+                transfersInCount++;
+                transfersInSum = transfersInSum.add(amount);
+            } else if (TransactionEvent.DIRECTION_OUT.equals(event.getDirection())) {
+                debitsCount++;
+                debitsSum = debitsSum.add(amount);
+                transfersOutCount++;
+                transfersOutSum = transfersOutSum.add(amount);
+            }
+        }
+    }
+    
+    public void add(WalletDailySummary other) {
+        creditsCount += other.creditsCount;
+        creditsSum = creditsSum.add(other.creditsSum);
+        debitsCount += other.debitsCount;
+        debitsSum = debitsSum.add(other.debitsSum);
+        transfersInCount += other.transfersInCount;
+        transfersInSum = transfersInSum.add(other.transfersInSum);
+        transfersOutCount += other.transfersOutCount;
+        transfersOutSum = transfersOutSum.add(other.transfersOutSum);
+    }
+    
+    public boolean isEmpty() {
+        return creditsCount == 0 && debitsCount == 0;
+    }
+    
+    // Getters
+    public String getWalletId() { return walletId; }
+    public LocalDate getDay() { return day; }
+    public long getCreditsCount() { return creditsCount; }
+    public BigDecimal getCreditsSum() { return creditsSum; }
+    public long getDebitsCount() { return debitsCount; }
+    public BigDecimal getDebitsSum() { return debitsSum; }
+    public long getTransfersInCount() { return transfersInCount; }
+    public BigDecimal getTransfersInSum() { return transfersInSum; }
+    public long getTransfersOutCount() { return transfersOutCount; }
+    public BigDecimal getTransfersOutSum() { return transfersOutSum; }
+}
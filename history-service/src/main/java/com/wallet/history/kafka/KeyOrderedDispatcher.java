@@ -0,0 +1,160 @@
+package com.wallet.history.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans a poll batch out to a worker pool while keeping per-key order.
+ *
+ * Records are striped into lanes by key (the wallet id), keeping their
+ * batch order, and each lane runs on its own worker. A key's events always
+ * share a lane, so they are handled in order; different wallets from the
+ * same partition are handled in parallel. The caller waits for every lane
+ * and learns, per record, whether it completed, which is what
+ * {@link PartitionOffsets} needs to find the offsets that are safe to
+ * commit.
+ *
+ * Each worker holds a database connection while its lane runs, so
+ * {@code history.kafka.workers} should stay below the Hikari pool size.
+ */
+@Component
+public class KeyOrderedDispatcher {
+    
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+    
+    private final int workerCount;
+    private final ExecutorService workers;
+    
+    public KeyOrderedDispatcher(@Value("${history.kafka.workers:4}") int workerCount) {
+        this.workerCount = workerCount;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, task -> {
+            Thread thread = new Thread(task, "history-worker-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Started {} history workers", workerCount);
+    }
+    
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+    
+    /**
+     * Handles one lane's records in order. To report a partial lane, throw
+     * {@link BatchListenerFailedException} with the lane index of the
+     * failed record: the records before it count as completed. Any other
+     * exception fails the whole lane.
+     */
+    @FunctionalInterface
+    public interface LaneHandler<K, V> {
+        void process(List<ConsumerRecord<K, V>> lane);
+    }
+    
+    /**
+     * Runs the handler over the batch, one lane per key stripe, and waits
+     * for all lanes. Never throws for handler failures; they are reported
+     * in the result against the first record each failed lane left undone.
+     */
+    public <K, V> Dispatch dispatch(List<ConsumerRecord<K, V>> records, LaneHandler<K, V> handler) {
+        List<List<Integer>> laneIndexes = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            laneIndexes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < records.size(); i++) {
+            laneIndexes.get(laneOf(records.get(i))).add(i);
+        }
+        
+        Dispatch dispatch = new Dispatch(records.size());
+        List<CompletableFuture<Void>> running = new ArrayList<>(workerCount);
+        List<Integer> lastBusyLane = null;
+        for (List<Integer> indexes : laneIndexes) {
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            if (lastBusyLane != null) {
+                List<Integer> previous = lastBusyLane;
+                running.add(CompletableFuture.runAsync(() -> runLane(records, previous, handler, dispatch), workers));
+            }
+            lastBusyLane = indexes;
+        }
+        // The last lane runs on the calling thread; a single-lane batch never leaves it
+        if (lastBusyLane != null) {
+            runLane(records, lastBusyLane, handler, dispatch);
+        }
+        CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+        return dispatch;
+    }
+    
+    private int laneOf(ConsumerRecord<?, ?> record) {
+        // Unkeyed records have no wallet to order by; keep them in partition order
+        Object key = record.key();
+        int hash = key != null ? key.hashCode() : record.partition();
+        return Math.floorMod(hash, workerCount);
+    }
+    
+    private <K, V> void runLane(List<ConsumerRecord<K, V>> records, List<Integer> indexes,
+                                LaneHandler<K, V> handler, Dispatch dispatch) {
+        List<ConsumerRecord<K, V>> lane = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            lane.add(records.get(index));
+        }
+        
+        int completed;
+        RuntimeException failure = null;
+        try {
+            handler.process(lane);
+            completed = lane.size();
+        } catch (BatchListenerFailedException e) {
+            completed = e.getIndex();
+            failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+        } catch (RuntimeException e) {
+            completed = 0;
+            failure = e;
+        }
+        
+        for (int i = 0; i < completed; i++) {
+            dispatch.completed[indexes.get(i)] = true;
+        }
+        if (failure != null) {
+            dispatch.failures[indexes.get(completed)] = failure;
+        }
+    }
+    
+    /**
+     * Outcome of one dispatched batch, indexed like the batch. Each lane
+     * writes only its own slots, and {@code join()} publishes them to the
+     * caller.
+     */
+    public static final class Dispatch {
+        private final boolean[] completed;
+        private final RuntimeException[] failures;
+        
+        private Dispatch(int size) {
+            this.completed = new boolean[size];
+            this.failures = new RuntimeException[size];
+        }
+        
+        public boolean isCompleted(int index) {
+            return completed[index];
+        }
+        
+        // The exception that stopped a lane at this record, if it did
+        public RuntimeException failureAt(int index) {
+            return failures[index];
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.wallet.history.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Commit points for a batch whose records completed out of order.
+ *
+ * Within a partition, only the records before the first one still undone
+ * are safe to commit: a later record may have finished on another lane,
+ * but committing past the gap would lose the gap on restart. So each
+ * partition commits its highest contiguous completed offset. Records
+ * completed beyond a gap are redelivered, which the ON CONFLICT ingest
+ * makes harmless.
+ */
+final class PartitionOffsets {
+    
+    private final Map<TopicPartition, OffsetAndMetadata> committable;
+    private final int firstIncompleteIndex;
+    
+    private PartitionOffsets(Map<TopicPartition, OffsetAndMetadata> committable, int firstIncompleteIndex) {
+        this.committable = committable;
+        this.firstIncompleteIndex = firstIncompleteIndex;
+    }
+    
+    // Records of a partition must appear in offset order, as they do in a poll batch
+    static PartitionOffsets of(List<? extends ConsumerRecord<?, ?>> records, KeyOrderedDispatcher.Dispatch dispatch) {
+        Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+        Set<TopicPartition> blocked = new HashSet<>();
+        int firstIncompleteIndex = -1;
+        
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<?, ?> record = records.get(i);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (blocked.contains(partition)) {
+                continue;
+            }
+            if (dispatch.isCompleted(i)) {
+                committable.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            } else {
+                blocked.add(partition);
+                if (firstIncompleteIndex < 0) {
+                    firstIncompleteIndex = i;
+                }
+            }
+        }
+        return new PartitionOffsets(committable, firstIncompleteIndex);
+    }
+    
+    // Next offset to consume for every partition that made progress
+    Map<TopicPartition, OffsetAndMetadata> committable() {
+        return committable;
+    }
+    
+    // Batch index of the earliest record left undone, or -1 if all completed
+    int firstIncompleteIndex() {
+        return firstIncompleteIndex;
+    }
+}
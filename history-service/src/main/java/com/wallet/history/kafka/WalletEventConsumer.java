@@ -1,32 +1,60 @@
 package com.wallet.history.kafka;
 
+import com.wallet.events.WalletEvent;
 import com.wallet.history.entity.TransactionEvent;
-import com.wallet.history.event.TransferCompletedEvent;
-import com.wallet.history.event.WalletCreatedEvent;
-import com.wallet.history.event.WalletEvent;
-import com.wallet.history.event.WalletFundedEvent;
-import com.wallet.history.repository.TransactionEventRepository;
+import com.wallet.history.repository.TransactionEventJdbcRepository;
+import com.wallet.history.service.DailySummaryProjection;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Ingests wallet events a poll batch at a time. The batch is split into
+ * wallet-keyed lanes by {@link KeyOrderedDispatcher}; each lane maps its
+ * records and inserts the rows with one statement in its own transaction,
+ * in parallel with the other lanes. The same transaction adds the newly
+ * stored rows to the daily wallet summaries. Rows already stored are
+ * dropped by the (transaction_id, direction, created_at) unique
+ * constraint, so redelivered events cost no extra query and are never
+ * counted twice.
+ *
+ * Failures stay per record. A record that cannot be decoded is logged and
+ * skipped. If one cannot be mapped, its lane stores the records before it
+ * and stops. Each partition then commits its highest contiguous completed
+ * offset, and the earliest undone record is reported by index with
+ * {@link BatchListenerFailedException}, so the container's error handler
+ * retries from there and eventually skips only that record.
+ */
 @Component
 public class WalletEventConsumer {
     
     private static final Logger log = LoggerFactory.getLogger(WalletEventConsumer.class);
     
-    private final TransactionEventRepository eventRepository;
+    private final TransactionEventJdbcRepository eventJdbcRepository;
+    private final TransactionEventMapper mapper;
+    private final TransactionTemplate transactionTemplate;
+    private final KeyOrderedDispatcher dispatcher;
+    private final DailySummaryProjection summaryProjection;
     
-    public WalletEventConsumer(TransactionEventRepository eventRepository) {
-        this.eventRepository = eventRepository;
+    public WalletEventConsumer(TransactionEventJdbcRepository eventJdbcRepository,
+                               TransactionEventMapper mapper,
+                               TransactionTemplate transactionTemplate,
+                               KeyOrderedDispatcher dispatcher,
+                               DailySummaryProjection summaryProjection) {
+        this.eventJdbcRepository = eventJdbcRepository;
+        this.mapper = mapper;
+        this.transactionTemplate = transactionTemplate;
+        this.dispatcher = dispatcher;
+        this.summaryProjection = summaryProjection;
     }
     
     @KafkaListener(
@@ -34,139 +62,62 @@ public class WalletEventConsumer {
         groupId = "${spring.kafka.consumer.group-id}",
         containerFactory = "kafkaListenerContainerFactory"
     )
-    @Transactional
-    public void consumeWalletEvent(WalletEvent event, Acknowledgment acknowledgment) {
-        log.info("Received event: {} for wallet: {}", event.getEventType(), event.getWalletId());
-        
-        try {
-            // Process event based on type
-            if (event instanceof WalletCreatedEvent) {
-                processWalletCreated((WalletCreatedEvent) event);
-            } else if (event instanceof WalletFundedEvent) {
-                processWalletFunded((WalletFundedEvent) event);
-            } else if (event instanceof TransferCompletedEvent) {
-                processTransferCompleted((TransferCompletedEvent) event);
-            } else {
-                log.warn("Unknown event type: {}", event.getClass().getName());
-            }
-            
-            // Manually commit offset after successful processing
+    public void consumeWalletEvents(List<ConsumerRecord<String, WalletEvent>> records,
+                                    Acknowledgment acknowledgment,
+                                    Consumer<?, ?> consumer) {
+        KeyOrderedDispatcher.Dispatch dispatch = dispatcher.dispatch(records, this::ingestLane);
+        PartitionOffsets offsets = PartitionOffsets.of(records, dispatch);
+        
+        int failedIndex = offsets.firstIncompleteIndex();
+        if (failedIndex < 0) {
+            // One offset commit for the whole batch
             acknowledgment.acknowledge();
-            log.info("Event processed and committed: {}", event.getEventType());
-            
-        } catch (Exception e) {
-            log.error("Error processing event: {}", event.getEventType(), e);
-            // Don't acknowledge - message will be reprocessed
-            throw e;
-        }
-    }
-    
-    private void processWalletCreated(WalletCreatedEvent event) {
-        log.debug("Processing WALLET_CREATED for wallet: {}", event.getWalletId());
-        
-        // Check for duplicate (idempotency)
-        if (eventRepository.existsByTransactionId(event.getEventId())) {
-            log.warn("Event already processed, skipping: {}", event.getEventId());
+            log.info("Ingested {} records", records.size());
             return;
         }
         
-        Map<String, Object> eventData = new HashMap<>();
-        eventData.put("originalTimestamp", event.getTimestamp().toString());
-        
-        TransactionEvent transactionEvent = new TransactionEvent(
-            UUID.randomUUID().toString(),
-            event.getWalletId(),
-            event.getUserId(),
-            BigDecimal.ZERO,  // No amount for creation
-            "WALLET_CREATED",
-            event.getEventId(),  // Use eventId as transactionId for created events
-            eventData
-        );
-        
-        eventRepository.save(transactionEvent);
-        log.info("Saved WALLET_CREATED event for wallet: {}", event.getWalletId());
+        // Keep every partition's contiguous progress, then retry from the earliest gap
+        consumer.commitSync(offsets.committable());
+        ConsumerRecord<String, WalletEvent> failed = records.get(failedIndex);
+        throw new BatchListenerFailedException(
+            "Could not process record " + failed.topic() + "-" + failed.partition() + "@" + failed.offset(),
+            dispatch.failureAt(failedIndex), failedIndex);
     }
     
-    private void processWalletFunded(WalletFundedEvent event) {
-        log.debug("Processing WALLET_FUNDED for wallet: {}", event.getWalletId());
-        
-        // Check for duplicate
-        if (eventRepository.existsByTransactionId(event.getTransactionId())) {
-            log.warn("Event already processed, skipping: {}", event.getTransactionId());
-            return;
+    // One lane's records, in order: map them, then store the rows in one transaction
+    private void ingestLane(List<ConsumerRecord<String, WalletEvent>> lane) {
+        List<TransactionEvent> rows = new ArrayList<>(lane.size() * 2);
+        int failedIndex = -1;
+        RuntimeException failure = null;
+        
+        for (int i = 0; i < lane.size(); i++) {
+            ConsumerRecord<String, WalletEvent> record = lane.get(i);
+            if (record.value() == null) {
+                // ErrorHandlingDeserializer hands over undecodable records as null values
+                log.error("Skipping undecodable record {}-{}@{}",
+                    record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            try {
+                rows.addAll(mapper.toRows(record.value()));
+            } catch (RuntimeException e) {
+                failedIndex = i;
+                failure = e;
+                break;
+            }
         }
         
-        Map<String, Object> eventData = new HashMap<>();
-        eventData.put("originalTimestamp", event.getTimestamp().toString());
-        eventData.put("amount", event.getAmount().toString());
-        
-        TransactionEvent transactionEvent = new TransactionEvent(
-            UUID.randomUUID().toString(),
-            event.getWalletId(),
-            event.getUserId(),
-            event.getAmount(),
-            "WALLET_FUNDED",
-            event.getTransactionId(),
-            eventData
-        );
-        
-        eventRepository.save(transactionEvent);
-        log.info("Saved WALLET_FUNDED event for wallet: {}, amount: {}", 
-            event.getWalletId(), event.getAmount());
-    }
-    
-    private void processTransferCompleted(TransferCompletedEvent event) {
-        log.debug("Processing TRANSFER_COMPLETED from: {} to: {}", 
-            event.getFromWalletId(), event.getToWalletId());
-        
-        // Check for duplicate
-        if (eventRepository.existsByTransactionId(event.getTransactionId())) {
-            log.warn("Event already processed, skipping: {}", event.getTransactionId());
-            return;
+        // Raw rows and the daily projection commit together; only newly stored rows are projected
+        int inserted = transactionTemplate.execute(status -> {
+            List<TransactionEvent> stored = eventJdbcRepository.insertAll(rows);
+            summaryProjection.apply(stored);
+            return stored.size();
+        });
+        log.debug("Inserted {} rows, {} duplicates ignored", inserted, rows.size() - inserted);
+        
+        if (failure != null) {
+            throw new BatchListenerFailedException(
+                "Could not process " + lane.get(failedIndex).value().getEventType(), failure, failedIndex);
         }
-        
-        // Create TWO events: one for sender, one for receiver
-        
-        // Event for sender (outgoing transfer)
-        Map<String, Object> outgoingData = new HashMap<>();
-        outgoingData.put("originalTimestamp", event.getTimestamp().toString());
-        outgoingData.put("fromWalletId", event.getFromWalletId());
-        outgoingData.put("toWalletId", event.getToWalletId());
-        outgoingData.put("direction", "OUT");
-        
-        TransactionEvent outgoingEvent = new TransactionEvent(
-            UUID.randomUUID().toString(),
-            event.getFromWalletId(),  // From wallet's perspective
-            event.getUserId(),
-            event.getAmount().negate(),  // Negative amount (money left)
-            "TRANSFER_COMPLETED",
-            event.getTransactionId(),
-            outgoingData
-        );
-        
-        // Event for receiver (incoming transfer)
-        Map<String, Object> incomingData = new HashMap<>();
-        incomingData.put("originalTimestamp", event.getTimestamp().toString());
-        incomingData.put("fromWalletId", event.getFromWalletId());
-        incomingData.put("toWalletId", event.getToWalletId());
-        incomingData.put("direction", "IN");
-        
-        // We need to get the receiver's userId (in real system, might be in event)
-        // For now, we'll use a placeholder or the same userId
-        TransactionEvent incomingEvent = new TransactionEvent(
-            UUID.randomUUID().toString(),
-            event.getToWalletId(),  // To wallet's perspective
-            event.getUserId(),  // In production, fetch actual user
-            event.getAmount(),  // Positive amount (money received)
-            "TRANSFER_COMPLETED",
-            event.getTransactionId() + "-IN",  // Different ID to allow both events
-            incomingData
-        );
-        
-        eventRepository.save(outgoingEvent);
-        eventRepository.save(incomingEvent);
-        
-        log.info("Saved TRANSFER_COMPLETED events: {} -> {}, amount: {}", 
-            event.getFromWalletId(), event.getToWalletId(), event.getAmount());
     }
-}
\ No newline at end of file
+}
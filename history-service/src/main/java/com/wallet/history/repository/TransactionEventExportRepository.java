@@ -0,0 +1,43 @@
+package com.wallet.history.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * Streams a wallet's or user's whole history, oldest first, one row at a
+ * time. Rows are fetched {@code fetch-size} at a time through a server-side
+ * cursor, which PostgreSQL only uses inside a transaction, so callers must
+ * run these in one. Nothing is collected: each row goes straight to the
+ * handler.
+ */
+@Repository
+public class TransactionEventExportRepository {
+    
+    // Same columns for every export, in the order the writers expect
+    private static final String COLUMNS =
+        "id, wallet_id, user_id, amount, event_type, transaction_id, direction, created_at, event_data::text AS event_data";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public TransactionEventExportRepository(DataSource dataSource,
+                                            @Value("${history.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+    
+    // Walks idx_events_wallet_page backwards
+    public void streamWalletEvents(String walletId, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT " + COLUMNS + " FROM transaction_events WHERE wallet_id = ? "
+            + "ORDER BY created_at, id", handler, walletId);
+    }
+    
+    // Walks idx_events_user_page backwards
+    public void streamUserEvents(String userId, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT " + COLUMNS + " FROM transaction_events WHERE user_id = ? "
+            + "ORDER BY created_at, id", handler, userId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.wallet.history.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.history.entity.TransactionEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based ingest for the batch consumer: one multi-row
+ * {@code INSERT ... ON CONFLICT DO NOTHING} per lane, with the rows passed
+ * as column arrays and expanded by {@code unnest}. The unique
+ * (transaction_id, direction, created_at) constraint drops redelivered
+ * rows; created_at is the event's own timestamp, so it repeats too. No
+ * read is needed and concurrent consumers cannot double-insert.
+ * Bypasses the persistence context, whose {@code saveAll} would issue a
+ * SELECT per row for entities with assigned ids. Ids are sent as uuid[],
+ * which suits the column whether it is still VARCHAR(36) or was converted
+ * by migrations/native-uuid-ids.sql.
+ */
+@Repository
+public class TransactionEventJdbcRepository {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO transaction_events " +
+        "(id, wallet_id, user_id, amount, event_type, transaction_id, direction, created_at, event_data) " +
+        "SELECT id, wallet_id, user_id, amount, event_type, transaction_id, direction, created_at, event_data::jsonb " +
+        "FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::numeric[], ?::varchar[], " +
+        "?::varchar[], ?::varchar[], ?::timestamp[], ?::text[]) " +
+        "AS t(id, wallet_id, user_id, amount, event_type, transaction_id, direction, created_at, event_data) " +
+        "ON CONFLICT (transaction_id, direction, created_at) DO NOTHING " +
+        "RETURNING id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public TransactionEventJdbcRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Inserts the events in one statement and returns the ones actually
+     * stored, i.e. without those that were already there.
+     */
+    public List<TransactionEvent> insertAll(List<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        int size = events.size();
+        UUID[] ids = new UUID[size];
+        String[] walletIds = new String[size];
+        String[] userIds = new String[size];
+        BigDecimal[] amounts = new BigDecimal[size];
+        String[] eventTypes = new String[size];
+        String[] transactionIds = new String[size];
+        String[] directions = new String[size];
+        Timestamp[] createdAts = new Timestamp[size];
+        String[] eventData = new String[size];
+        Map<String, TransactionEvent> byId = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            TransactionEvent event = events.get(i);
+            ids[i] = UUID.fromString(event.getId());
+            walletIds[i] = event.getWalletId();
+            userIds[i] = event.getUserId();
+            amounts[i] = event.getAmount();
+            eventTypes[i] = event.getEventType();
+            transactionIds[i] = event.getTransactionId();
+            directions[i] = event.getDirection();
+            createdAts[i] = Timestamp.from(event.getCreatedAt());
+            eventData[i] = event.getEventData() == null ? null : toJson(event.getEventData());
+            byId.put(event.getId(), event);
+        }
+        
+        List<String> insertedIds = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setArray(2, con.createArrayOf("varchar", walletIds));
+            ps.setArray(3, con.createArrayOf("varchar", userIds));
+            ps.setArray(4, con.createArrayOf("numeric", amounts));
+            ps.setArray(5, con.createArrayOf("varchar", eventTypes));
+            ps.setArray(6, con.createArrayOf("varchar", transactionIds));
+            ps.setArray(7, con.createArrayOf("varchar", directions));
+            ps.setArray(8, con.createArrayOf("timestamp", createdAts));
+            ps.setArray(9, con.createArrayOf("text", eventData));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+        
+        List<TransactionEvent> inserted = new ArrayList<>(insertedIds.size());
+        for (String id : insertedIds) {
+            inserted.add(byId.get(id));
+        }
+        return inserted;
+    }
+    
+    private String toJson(Map<String, Object> eventData) {
+        try {
+            return objectMapper.writeValueAsString(eventData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event data", e);
+        }
+    }
+}
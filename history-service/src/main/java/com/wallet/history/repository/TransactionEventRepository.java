@@ -2,22 +2,45 @@ package com.wallet.history.repository;
 
 import com.wallet.history.entity.TransactionEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
 public interface TransactionEventRepository extends JpaRepository<TransactionEvent, String> {
     
-    // Find all events for a wallet
-    List<TransactionEvent> findByWalletIdOrderByCreatedAtDesc(String walletId);
+    // Keyset pages, newest first. Each walks one (filter, created_at DESC, id DESC) index:
+    // the first page starts at the top, later ones seek past the cursor's row.
+    // On the monthly partitions, the first page merges each partition's index and stops at
+    // LIMIT; later pages repeat the cursor bound as a plain created_at <= :createdAt, which
+    // the planner can prune partitions on (it does not prune on the row comparison).
     
-    // Find all events for a user
-    List<TransactionEvent> findByUserIdOrderByCreatedAtDesc(String userId);
+    @Query(value = "SELECT * FROM transaction_events WHERE wallet_id = :walletId "
+                 + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<TransactionEvent> findWalletPage(String walletId, int limit);
     
-    // Check if transaction already processed (idempotency)
-    boolean existsByTransactionId(String transactionId);
+    @Query(value = "SELECT * FROM transaction_events WHERE wallet_id = :walletId "
+                 + "AND created_at <= :createdAt AND (created_at, id) < (:createdAt, :id) "
+                 + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<TransactionEvent> findWalletPageAfter(String walletId, Instant createdAt, String id, int limit);
     
-    // Find events by type
-    List<TransactionEvent> findByEventTypeOrderByCreatedAtDesc(String eventType);
-}
\ No newline at end of file
+    @Query(value = "SELECT * FROM transaction_events WHERE user_id = :userId "
+                 + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<TransactionEvent> findUserPage(String userId, int limit);
+    
+    @Query(value = "SELECT * FROM transaction_events WHERE user_id = :userId "
+                 + "AND created_at <= :createdAt AND (created_at, id) < (:createdAt, :id) "
+                 + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<TransactionEvent> findUserPageAfter(String userId, Instant createdAt, String id, int limit);
+    
+    @Query(value = "SELECT * FROM transaction_events WHERE event_type = :eventType "
+                 + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<TransactionEvent> findTypePage(String eventType, int limit);
+    
+    @Query(value = "SELECT * FROM transaction_events WHERE event_type = :eventType "
+                 + "AND created_at <= :createdAt AND (created_at, id) < (:createdAt, :id) "
+                 + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<TransactionEvent> findTypePageAfter(String eventType, Instant createdAt, String id, int limit);
+}
@@ -0,0 +1,75 @@
+package com.wallet.history.repository;
+
+import com.wallet.history.entity.WalletDailySummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The wallet_daily_summaries projection: additive upserts from the
+ * consumer, range reads for the summary endpoint.
+ */
+@Repository
+public class WalletDailySummaryRepository {
+    
+    private static final String UPSERT_SQL =
+        "INSERT INTO wallet_daily_summaries " +
+        "(wallet_id, day, credits_count, credits_sum, debits_count, debits_sum, " +
+        "transfers_in_count, transfers_in_sum, transfers_out_count, transfers_out_sum) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (wallet_id, day) DO UPDATE SET " +
+        "credits_count = wallet_daily_summaries.credits_count + EXCLUDED.credits_count, " +
+        "credits_sum = wallet_daily_summaries.credits_sum + EXCLUDED.credits_sum, " +
+        "debits_count = wallet_daily_summaries.debits_count + EXCLUDED.debits_count, " +
+        "debits_sum = wallet_daily_summaries.debits_sum + EXCLUDED.debits_sum, " +
+        "transfers_in_count = wallet_daily_summaries.transfers_in_count + EXCLUDED.transfers_in_count, " +
+        "transfers_in_sum = wallet_daily_summaries.transfers_in_sum + EXCLUDED.transfers_in_sum, " +
+        "transfers_out_count = wallet_daily_summaries.transfers_out_count + EXCLUDED.transfers_out_count, " +
+        "transfers_out_sum = wallet_daily_summaries.transfers_out_sum + EXCLUDED.transfers_out_sum";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public WalletDailySummaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // Adds each delta to its (wallet, day) row, creating the row if needed
+    public void addAll(List<WalletDailySummary> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.getWalletId());
+            ps.setDate(2, Date.valueOf(delta.getDay()));
+            ps.setLong(3, delta.getCreditsCount());
+            ps.setBigDecimal(4, delta.getCreditsSum());
+            ps.setLong(5, delta.getDebitsCount());
+            ps.setBigDecimal(6, delta.getDebitsSum());
+            ps.setLong(7, delta.getTransfersInCount());
+            ps.setBigDecimal(8, delta.getTransfersInSum());
+            ps.setLong(9, delta.getTransfersOutCount());
+            ps.setBigDecimal(10, delta.getTransfersOutSum());
+        });
+    }
+    
+    // Days with activity, oldest first; one primary-key range scan
+    public List<WalletDailySummary> findRange(String walletId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+            "SELECT * FROM wallet_daily_summaries WHERE wallet_id = ? AND day BETWEEN ? AND ? ORDER BY day",
+            (rs, rowNum) -> new WalletDailySummary(
+                rs.getString("wallet_id"),
+                rs.getDate("day").toLocalDate(),
+                rs.getLong("credits_count"),
+                rs.getBigDecimal("credits_sum"),
+                rs.getLong("debits_count"),
+                rs.getBigDecimal("debits_sum"),
+                rs.getLong("transfers_in_count"),
+                rs.getBigDecimal("transfers_in_sum"),
+                rs.getLong("transfers_out_count"),
+                rs.getBigDecimal("transfers_out_sum")),
+            walletId, Date.valueOf(from), Date.valueOf(to));
+    }
+}
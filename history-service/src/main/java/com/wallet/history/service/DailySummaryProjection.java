@@ -0,0 +1,56 @@
+package com.wallet.history.service;
+
+import com.wallet.history.entity.TransactionEvent;
+import com.wallet.history.entity.WalletDailySummary;
+import com.wallet.history.repository.WalletDailySummaryRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps wallet_daily_summaries in step with transaction_events. The
+ * consumer calls it in the same transaction as the insert, with only the
+ * rows that insert actually stored, so a redelivered event is never
+ * counted twice.
+ */
+@Component
+public class DailySummaryProjection {
+    
+    // Upsert in key order so lanes touching the same rows lock them in the same order
+    private static final Comparator<WalletDailySummary> KEY_ORDER =
+        Comparator.comparing(WalletDailySummary::getWalletId).thenComparing(WalletDailySummary::getDay);
+    
+    private final WalletDailySummaryRepository summaryRepository;
+    
+    public DailySummaryProjection(WalletDailySummaryRepository summaryRepository) {
+        this.summaryRepository = summaryRepository;
+    }
+    
+    public void apply(List<TransactionEvent> inserted) {
+        Map<String, Map<LocalDate, WalletDailySummary>> byWallet = new HashMap<>();
+        for (TransactionEvent event : inserted) {
+            // created_at is stored in the JVM's zone, so days are too
+            LocalDate day = LocalDate.ofInstant(event.getCreatedAt(), ZoneId.systemDefault());
+            byWallet.computeIfAbsent(event.getWalletId(), walletId -> new HashMap<>())
+                .computeIfAbsent(day, d -> new WalletDailySummary(event.getWalletId(), d))
+                .record(event);
+        }
+        
+        List<WalletDailySummary> deltas = new ArrayList<>();
+        for (Map<LocalDate, WalletDailySummary> days : byWallet.values()) {
+            for (WalletDailySummary delta : days.values()) {
+                if (!delta.isEmpty()) {
+                    deltas.add(delta);
+                }
+            }
+        }
+        deltas.sort(KEY_ORDER);
+        summaryRepository.addAll(deltas);
+    }
+}
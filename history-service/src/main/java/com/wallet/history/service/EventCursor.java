@@ -0,0 +1,51 @@
+package com.wallet.history.service;
+
+import com.wallet.history.entity.TransactionEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a {@code (created_at DESC, id DESC)} listing: the key of the
+ * last row returned. Clients only ever see it as an opaque URL-safe token.
+ */
+public final class EventCursor {
+    
+    private static final String VERSION = "v1";
+    
+    private final Instant createdAt;
+    private final String id;
+    
+    private EventCursor(Instant createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    public static EventCursor after(TransactionEvent event) {
+        return new EventCursor(event.getCreatedAt(), event.getId());
+    }
+    
+    public static EventCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0]) || parts[3].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            return new EventCursor(createdAt, parts[3]);
+        } catch (IllegalArgumentException | DateTimeException e) {  // Includes NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    public String encode() {
+        String raw = VERSION + ":" + createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public Instant getCreatedAt() { return createdAt; }
+    public String getId() { return id; }
+}
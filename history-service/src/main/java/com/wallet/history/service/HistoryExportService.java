@@ -0,0 +1,187 @@
+package com.wallet.history.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.history.repository.TransactionEventExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * Full-history exports for compliance. Each row goes from the database
+ * cursor straight into the response as NDJSON or CSV, so memory stays flat
+ * and the first bytes leave as soon as the first fetch returns, however
+ * large the wallet is.
+ *
+ * An export holds one database connection (and admission permit) until
+ * the client has read the last row.
+ */
+@Service
+public class HistoryExportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(HistoryExportService.class);
+    
+    private static final String[] CSV_HEADER = {
+        "id", "walletId", "userId", "amount", "eventType", "transactionId", "direction", "createdAt", "eventData"
+    };
+    
+    private final TransactionEventExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public HistoryExportService(TransactionEventExportRepository exportRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    public StreamingResponseBody exportWalletHistory(String walletId, ExportFormat format) {
+        return out -> export(out, format, handler -> exportRepository.streamWalletEvents(walletId, handler));
+    }
+    
+    public StreamingResponseBody exportUserActivity(String userId, ExportFormat format) {
+        return out -> export(out, format, handler -> exportRepository.streamUserEvents(userId, handler));
+    }
+    
+    private void export(OutputStream out, ExportFormat format, Consumer<RowCallbackHandler> query) throws IOException {
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out, objectMapper);
+        long[] rows = {0};
+        try {
+            // The cursor only stays open inside a transaction
+            readOnlyTransaction.executeWithoutResult(status -> query.accept(rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; stop reading rows and let the container clean up
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Exported {} rows as {}", rows[0], format);
+    }
+    
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+        void finish() throws IOException;
+    }
+    
+    // One JSON object per line; event_data is copied through as raw JSON, never parsed
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+        
+        private NdjsonRowWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(out);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);  // Lines are ended explicitly below
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeStringField("id", rs.getString("id"));
+            json.writeStringField("walletId", rs.getString("wallet_id"));
+            json.writeStringField("userId", rs.getString("user_id"));
+            json.writeNumberField("amount", rs.getBigDecimal("amount"));
+            json.writeStringField("eventType", rs.getString("event_type"));
+            json.writeStringField("transactionId", rs.getString("transaction_id"));
+            json.writeStringField("direction", rs.getString("direction"));
+            json.writeStringField("createdAt", createdAt(rs));
+            String eventData = rs.getString("event_data");
+            json.writeFieldName("eventData");
+            if (eventData == null) {
+                json.writeNull();
+            } else {
+                json.writeRawValue(eventData);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+    
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer csv;
+        
+        private CsvRowWriter(OutputStream out) throws IOException {
+            this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeLine(CSV_HEADER);
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writeLine(new String[] {
+                rs.getString("id"),
+                rs.getString("wallet_id"),
+                rs.getString("user_id"),
+                rs.getBigDecimal("amount").toPlainString(),
+                rs.getString("event_type"),
+                rs.getString("transaction_id"),
+                rs.getString("direction"),
+                createdAt(rs),
+                rs.getString("event_data")
+            });
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            csv.flush();
+        }
+        
+        private void writeLine(String[] fields) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                writeField(fields[i]);
+            }
+            csv.write("\r\n");
+        }
+        
+        // RFC 4180: quote fields holding a delimiter, quote or line break; double inner quotes
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                csv.write(value);
+                return;
+            }
+            csv.write('"');
+            csv.write(value.replace("\"", "\"\""));
+            csv.write('"');
+        }
+    }
+    
+    private static String createdAt(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return createdAt == null ? null : createdAt.toInstant().toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.wallet.history.service;
+
+import com.wallet.history.entity.TransactionEvent;
+
+import java.util.List;
+
+// One page of events, newest first; nextCursor is null on the last page
+public class HistoryPage {
+    
+    private final List<TransactionEvent> events;
+    private final String nextCursor;
+    
+    public HistoryPage(List<TransactionEvent> events, String nextCursor) {
+        this.events = events;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<TransactionEvent> getEvents() { return events; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -2,32 +2,76 @@ package com.wallet.history.service;
 
 import com.wallet.history.entity.TransactionEvent;
 import com.wallet.history.repository.TransactionEventRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+/**
+ * Read side of the history. Every listing is keyset-paginated on
+ * {@code (created_at, id)}, newest first, so a page costs the same no
+ * matter how deep into a large wallet it is, and never loads more than
+ * {@code max-page-size} rows.
+ */
 @Service
 public class HistoryService {
     
     private final TransactionEventRepository eventRepository;
+    private final int maxPageSize;
     
-    public HistoryService(TransactionEventRepository eventRepository) {
+    public HistoryService(TransactionEventRepository eventRepository,
+                          @Value("${history.pagination.max-page-size:200}") int maxPageSize) {
         this.eventRepository = eventRepository;
+        this.maxPageSize = maxPageSize;
     }
     
     @Transactional(readOnly = true)
-    public List<TransactionEvent> getWalletHistory(String walletId) {
-        return eventRepository.findByWalletIdOrderByCreatedAtDesc(walletId);
+    public HistoryPage getWalletHistory(String walletId, String cursor, int limit) {
+        int fetch = fetchSize(limit);
+        if (cursor == null) {
+            return page(eventRepository.findWalletPage(walletId, fetch), limit);
+        }
+        EventCursor after = EventCursor.decode(cursor);
+        return page(eventRepository.findWalletPageAfter(
+            walletId, after.getCreatedAt(), after.getId(), fetch), limit);
     }
     
     @Transactional(readOnly = true)
-    public List<TransactionEvent> getUserActivity(String userId) {
-        return eventRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public HistoryPage getUserActivity(String userId, String cursor, int limit) {
+        int fetch = fetchSize(limit);
+        if (cursor == null) {
+            return page(eventRepository.findUserPage(userId, fetch), limit);
+        }
+        EventCursor after = EventCursor.decode(cursor);
+        return page(eventRepository.findUserPageAfter(
+            userId, after.getCreatedAt(), after.getId(), fetch), limit);
     }
     
     @Transactional(readOnly = true)
-    public List<TransactionEvent> getEventsByType(String eventType) {
-        return eventRepository.findByEventTypeOrderByCreatedAtDesc(eventType);
+    public HistoryPage getEventsByType(String eventType, String cursor, int limit) {
+        int fetch = fetchSize(limit);
+        if (cursor == null) {
+            return page(eventRepository.findTypePage(eventType, fetch), limit);
+        }
+        EventCursor after = EventCursor.decode(cursor);
+        return page(eventRepository.findTypePageAfter(
+            eventType, after.getCreatedAt(), after.getId(), fetch), limit);
     }
-}
\ No newline at end of file
+    
+    // One extra row tells us whether another page exists without a COUNT
+    private int fetchSize(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return limit + 1;
+    }
+    
+    private static HistoryPage page(List<TransactionEvent> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new HistoryPage(rows, null);
+        }
+        List<TransactionEvent> events = rows.subList(0, limit);
+        return new HistoryPage(events, EventCursor.after(events.get(limit - 1)).encode());
+    }
+}
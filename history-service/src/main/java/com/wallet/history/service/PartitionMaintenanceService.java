@@ -0,0 +1,179 @@
+package com.wallet.history.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of transaction_events rolling.
+ *
+ * Makes sure the current month and the next {@code premake-months}
+ * partitions exist, so inserts never fall into the default partition, and
+ * detaches the months older than {@code retention-months}. Detached months
+ * are dropped when {@code drop-expired} is set; otherwise they are left as
+ * standalone tables to archive. Runs at startup and then on {@code cron}.
+ * Rows that already landed in the default partition for a month being
+ * created are moved into the new partition, since Postgres refuses to
+ * create a partition whose range the default partition holds rows for.
+ * Every instance runs it, but an advisory lock lets only one at a time act.
+ */
+@Service
+@ConditionalOnProperty(name = "history.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+    
+    private static final String PARENT = "transaction_events";
+    private static final String PREFIX = PARENT + "_";
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    
+    // Arbitrary, but fixed: pg_try_advisory_xact_lock key shared by all instances
+    private static final long LOCK_KEY = 0x7472_6576_7061_7274L;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+    
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${history.partitions.premake-months:3}") int premakeMonths,
+                                       @Value("${history.partitions.retention-months:0}") int retentionMonths,
+                                       @Value("${history.partitions.drop-expired:false}") boolean dropExpired) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = dropExpired;
+    }
+    
+    // A database that is not up yet must not stop the service from starting; cron retries
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        try {
+            maintain();
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Partition maintenance at startup failed, will retry on schedule", e);
+        }
+    }
+    
+    @Scheduled(cron = "${history.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Partition maintenance already running elsewhere");
+                return;
+            }
+            if (!isPartitioned()) {
+                log.warn("{} is not partitioned; skipping partition maintenance", PARENT);
+                return;
+            }
+            
+            // created_at is written in the JVM's zone, so months are too
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= premakeMonths; i++) {
+                createIfMissing(current.plusMonths(i));
+            }
+            if (retentionMonths > 0) {
+                expireBefore(current.minusMonths(retentionMonths));
+            }
+        });
+    }
+    
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+            Boolean.class, PARENT);
+        return Boolean.TRUE.equals(partitioned);
+    }
+    
+    private void createIfMissing(YearMonth month) {
+        // Names and bounds come from YearMonth only, so they are safe to inline
+        String name = PREFIX + month.format(MONTH_SUFFIX);
+        Boolean exists = jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        String from = "'" + month.atDay(1) + "'";
+        String to = "'" + month.plusMonths(1).atDay(1) + "'";
+        String inMonth = " WHERE created_at >= " + from + " AND created_at < " + to;
+        String bounds = "FROM (" + from + ") TO (" + to + ")";
+        
+        String defaultPartition = defaultPartition();
+        if (defaultPartition == null || !holdsRows(defaultPartition, inMonth)) {
+            jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF " + PARENT + " FOR VALUES " + bounds);
+            log.info("Created partition {}", name);
+            return;
+        }
+        
+        // Block inserts into the default partition until the attach is done; ATTACH needs this lock anyway
+        jdbcTemplate.execute("LOCK TABLE " + defaultPartition + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name
+            + " (LIKE " + PARENT + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition + inMonth
+            + " RETURNING *) INSERT INTO " + name + " SELECT * FROM moved");
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name + " FOR VALUES " + bounds);
+        log.warn("Created partition {} and moved {} rows into it from {}", name, moved, defaultPartition);
+    }
+    
+    private String defaultPartition() {
+        List<String> names = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partdefid "
+                + "WHERE p.partrelid = to_regclass(?)", String.class, PARENT);
+        return names.isEmpty() ? null : names.get(0);
+    }
+    
+    private boolean holdsRows(String partition, String where) {
+        Boolean rows = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + partition + where + ")", Boolean.class);
+        return Boolean.TRUE.equals(rows);
+    }
+    
+    private void expireBefore(YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass(?)", String.class, PARENT);
+        for (String name : partitions) {
+            YearMonth month = monthOf(name);
+            if (month == null || !month.isBefore(cutoff)) {
+                continue;  // The default partition, or still within retention
+            }
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + name);
+            if (dropExpired) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+                log.info("Dropped expired partition {}", name);
+            } else {
+                log.info("Detached expired partition {}", name);
+            }
+        }
+    }
+    
+    private static YearMonth monthOf(String partitionName) {
+        if (!partitionName.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PREFIX.length()), MONTH_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.wallet.history.service;
+
+import com.wallet.history.entity.WalletDailySummary;
+
+import java.util.List;
+
+// A wallet's days with activity in a range, oldest first, and their total
+public class WalletSummary {
+    
+    private final List<WalletDailySummary> days;
+    private final WalletDailySummary totals;
+    
+    public WalletSummary(List<WalletDailySummary> days, WalletDailySummary totals) {
+        this.days = days;
+        this.totals = totals;
+    }
+    
+    public List<WalletDailySummary> getDays() { return days; }
+    public WalletDailySummary getTotals() { return totals; }
+}
@@ -0,0 +1,44 @@
+package com.wallet.history.service;
+
+import com.wallet.history.entity.WalletDailySummary;
+import com.wallet.history.repository.WalletDailySummaryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Wallet summaries read from the daily projection, so a request costs one
+ * row per active day in the range rather than one per event.
+ */
+@Service
+public class WalletSummaryService {
+    
+    private final WalletDailySummaryRepository summaryRepository;
+    private final int maxDays;
+    
+    public WalletSummaryService(WalletDailySummaryRepository summaryRepository,
+                                @Value("${history.summary.max-days:366}") int maxDays) {
+        this.summaryRepository = summaryRepository;
+        this.maxDays = maxDays;
+    }
+    
+    // from and to are both inclusive
+    public WalletSummary getSummary(String walletId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("range must be at most " + maxDays + " days");
+        }
+        
+        List<WalletDailySummary> days = summaryRepository.findRange(walletId, from, to);
+        WalletDailySummary totals = new WalletDailySummary(walletId, null);
+        for (WalletDailySummary day : days) {
+            totals.add(day);
+        }
+        return new WalletSummary(days, totals);
+    }
+}
@@ -1,15 +1,28 @@
 package com.wallet.history.integration;
 
+import com.wallet.events.TransferCompletedEvent;
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletCreatedEvent;
+import com.wallet.events.WalletEventSerializer;
+import com.wallet.events.WalletFundedEvent;
 import com.wallet.history.entity.TransactionEvent;
-import com.wallet.history.event.TransferCompletedEvent;
-import com.wallet.history.event.WalletCreatedEvent;
-import com.wallet.history.event.WalletFundedEvent;
+import com.wallet.history.kafka.WalletEventConsumer;
 import com.wallet.history.repository.TransactionEventRepository;
+import com.wallet.history.service.ExportFormat;
+import com.wallet.history.service.HistoryExportService;
+import com.wallet.history.service.HistoryPage;
+import com.wallet.history.service.HistoryService;
+import com.wallet.history.service.WalletSummary;
+import com.wallet.history.service.WalletSummaryService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.KafkaContainer;
@@ -17,15 +30,26 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest
 @Testcontainers
@@ -37,12 +61,29 @@ class HistoryServiceIntegrationTest {
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
     
+    @Autowired
+    private HistoryService historyService;
+    
+    @Autowired
+    private HistoryExportService exportService;
+    
+    @Autowired
+    private WalletSummaryService summaryService;
+    
+    @Autowired
+    private WalletEventConsumer walletEventConsumer;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     @Container
     static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
         DockerImageName.parse("postgres:15-alpine"))
         .withDatabaseName("test_wallet_db")
         .withUsername("test_user")
-        .withPassword("test_pass");
+        .withPassword("test_pass")
+        .withCopyFileToContainer(MountableFile.forHostPath("../init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
     
     @Container
     static KafkaContainer kafka = new KafkaContainer(
@@ -54,11 +95,14 @@ class HistoryServiceIntegrationTest {
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        // Publish the way wallet-service does
+        registry.add("spring.kafka.producer.value-serializer", () -> WalletEventSerializer.class.getName());
     }
     
     @BeforeEach
     void setUp() {
         eventRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM wallet_daily_summaries");
     }
     
     @Test
@@ -75,7 +119,7 @@ class HistoryServiceIntegrationTest {
         
         // Then - wait for event to be processed (async!)
         await().atMost(10, SECONDS).untilAsserted(() -> {
-            List<TransactionEvent> events = eventRepository.findByWalletIdOrderByCreatedAtDesc("test-wallet-1");
+            List<TransactionEvent> events = eventRepository.findWalletPage("test-wallet-1", 50);
             assertThat(events).hasSize(1);
             assertThat(events.get(0).getEventType()).isEqualTo("WALLET_CREATED");
             assertThat(events.get(0).getUserId()).isEqualTo("alice");
@@ -98,7 +142,7 @@ class HistoryServiceIntegrationTest {
         
         // Then
         await().atMost(10, SECONDS).untilAsserted(() -> {
-            List<TransactionEvent> events = eventRepository.findByWalletIdOrderByCreatedAtDesc("test-wallet-2");
+            List<TransactionEvent> events = eventRepository.findWalletPage("test-wallet-2", 50);
             assertThat(events).hasSize(1);
             assertThat(events.get(0).getEventType()).isEqualTo("WALLET_FUNDED");
             assertThat(events.get(0).getAmount()).isEqualByComparingTo(new BigDecimal("100.00"));
@@ -124,7 +168,7 @@ class HistoryServiceIntegrationTest {
         
         // Then - should only create one record (idempotency)
         await().atMost(10, SECONDS).untilAsserted(() -> {
-            List<TransactionEvent> events = eventRepository.findByWalletIdOrderByCreatedAtDesc("test-wallet-3");
+            List<TransactionEvent> events = eventRepository.findWalletPage("test-wallet-3", 50);
             assertThat(events).hasSize(1);  // Only one, not two!
         });
     }
@@ -148,12 +192,12 @@ class HistoryServiceIntegrationTest {
         // Then - should create events for both wallets
         await().atMost(10, SECONDS).untilAsserted(() -> {
             // Alice's event (outgoing)
-            List<TransactionEvent> aliceEvents = eventRepository.findByWalletIdOrderByCreatedAtDesc("alice-wallet");
+            List<TransactionEvent> aliceEvents = eventRepository.findWalletPage("alice-wallet", 50);
             assertThat(aliceEvents).hasSize(1);
             assertThat(aliceEvents.get(0).getAmount()).isEqualByComparingTo(new BigDecimal("-30.00"));
             
             // Bob's event (incoming)
-            List<TransactionEvent> bobEvents = eventRepository.findByWalletIdOrderByCreatedAtDesc("bob-wallet");
+            List<TransactionEvent> bobEvents = eventRepository.findWalletPage("bob-wallet", 50);
             assertThat(bobEvents).hasSize(1);
             assertThat(bobEvents.get(0).getAmount()).isEqualByComparingTo(new BigDecimal("30.00"));
         });
@@ -193,7 +237,7 @@ class HistoryServiceIntegrationTest {
         
         // Then - all events processed
         await().atMost(10, SECONDS).untilAsserted(() -> {
-            List<TransactionEvent> events = eventRepository.findByWalletIdOrderByCreatedAtDesc(walletId);
+            List<TransactionEvent> events = eventRepository.findWalletPage(walletId, 50);
             assertThat(events).hasSize(3);
             
             // Verify order (DESC, so newest first)
@@ -206,4 +250,167 @@ class HistoryServiceIntegrationTest {
             assertThat(events.get(2).getEventType()).isEqualTo("WALLET_CREATED");
         });
     }
-}
\ No newline at end of file
+    
+    @Test
+    void shouldPageThroughWalletHistoryWithCursors() {
+        // Given - five events for one wallet
+        String walletId = "test-wallet-5";
+        List<String> savedIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TransactionEvent event = new TransactionEvent(UUID.randomUUID().toString(), walletId, "erin",
+                new BigDecimal(i + 1), "WALLET_FUNDED", UUID.randomUUID().toString(), Map.of());
+            eventRepository.save(event);
+            savedIds.add(event.getId());
+        }
+        
+        // When - read two at a time, following the cursor
+        List<String> pagedIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            HistoryPage page = historyService.getWalletHistory(walletId, cursor, 2);
+            page.getEvents().forEach(event -> pagedIds.add(event.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        
+        // Then - every event exactly once, in three pages
+        assertThat(pages).isEqualTo(3);
+        assertThat(pagedIds).containsExactlyInAnyOrderElementsOf(savedIds);
+        assertThatThrownBy(() -> historyService.getWalletHistory(walletId, "not-a-cursor", 2))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> historyService.getWalletHistory(walletId, null, 10_000))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void shouldStreamWalletHistoryExport() throws Exception {
+        // Given - three events for one wallet, each with data that needs CSV quoting
+        String walletId = "test-wallet-6";
+        for (int i = 0; i < 3; i++) {
+            eventRepository.save(new TransactionEvent(UUID.randomUUID().toString(), walletId, "frank",
+                new BigDecimal(i + 1), "WALLET_FUNDED", UUID.randomUUID().toString(),
+                Map.of("note", "a, \"quoted\" note")));
+        }
+        
+        // When
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.exportWalletHistory(walletId, ExportFormat.NDJSON).writeTo(ndjson);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.exportWalletHistory(walletId, ExportFormat.CSV).writeTo(csv);
+        
+        // Then - one line per event, plus the CSV header
+        String[] jsonLines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(jsonLines).hasSize(3);
+        assertThat(jsonLines[0]).startsWith("{\"id\":").contains("\"walletId\":\"test-wallet-6\"");
+        
+        String[] csvLines = csv.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(csvLines).hasSize(4);
+        assertThat(csvLines[0]).startsWith("id,walletId,userId,amount");
+        assertThat(csvLines[1]).contains("\"{\"\"note\"\":");
+        assertThatThrownBy(() -> ExportFormat.fromParam("xml"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void shouldMaintainDailySummaryOncePerEvent() {
+        // Given - a funding (delivered twice) and a transfer out of the same wallet
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.ofInstant(now, ZoneId.systemDefault());
+        
+        WalletFundedEvent funded = new WalletFundedEvent();
+        funded.setEventId(UUID.randomUUID().toString());
+        funded.setWalletId("grace-wallet");
+        funded.setUserId("grace");
+        funded.setAmount(new BigDecimal("100.00"));
+        funded.setTransactionId(UUID.randomUUID().toString());
+        funded.setTimestamp(now);
+        
+        TransferCompletedEvent transfer = new TransferCompletedEvent();
+        transfer.setEventId(UUID.randomUUID().toString());
+        transfer.setWalletId("grace-wallet");
+        transfer.setUserId("grace");
+        transfer.setFromWalletId("grace-wallet");
+        transfer.setToWalletId("heidi-wallet");
+        transfer.setAmount(new BigDecimal("40.00"));
+        transfer.setTransactionId(UUID.randomUUID().toString());
+        transfer.setTimestamp(now);
+        
+        // When
+        kafkaTemplate.send("wallet_events", funded.getWalletId(), funded);
+        kafkaTemplate.send("wallet_events", funded.getWalletId(), funded);
+        kafkaTemplate.send("wallet_events", transfer.getWalletId(), transfer);
+        
+        // Then - the duplicate is not counted; both sides of the transfer are
+        await().atMost(10, SECONDS).untilAsserted(() -> {
+            WalletSummary sender = summaryService.getSummary("grace-wallet", today.minusDays(1), today.plusDays(1));
+            assertThat(sender.getDays()).hasSize(1);
+            assertThat(sender.getTotals().getCreditsCount()).isEqualTo(1);
+            assertThat(sender.getTotals().getCreditsSum()).isEqualByComparingTo(new BigDecimal("100.00"));
+            assertThat(sender.getTotals().getTransfersOutCount()).isEqualTo(1);
+            assertThat(sender.getTotals().getDebitsSum()).isEqualByComparingTo(new BigDecimal("40.00"));
+            
+            WalletSummary receiver = summaryService.getSummary("heidi-wallet", today, today);
+            assertThat(receiver.getTotals().getTransfersInCount()).isEqualTo(1);
+            assertThat(receiver.getTotals().getCreditsSum()).isEqualByComparingTo(new BigDecimal("40.00"));
+        });
+        assertThatThrownBy(() -> summaryService.getSummary("grace-wallet", today, today.minusDays(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void shouldIgnoreRedeliveredBatch() {
+        // Given - a batch of fundings and a transfer, ingested once
+        Instant now = Instant.now();
+        List<ConsumerRecord<String, WalletEvent>> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            WalletFundedEvent funded = new WalletFundedEvent();
+            funded.setEventId(UUID.randomUUID().toString());
+            funded.setWalletId("ivan-wallet");
+            funded.setUserId("ivan");
+            funded.setAmount(new BigDecimal("10.00"));
+            funded.setTransactionId(UUID.randomUUID().toString());
+            funded.setTimestamp(now.plusMillis(i));
+            batch.add(new ConsumerRecord<>("wallet_events", 0, i, funded.getWalletId(), funded));
+        }
+        TransferCompletedEvent transfer = new TransferCompletedEvent();
+        transfer.setEventId(UUID.randomUUID().toString());
+        transfer.setWalletId("ivan-wallet");
+        transfer.setUserId("ivan");
+        transfer.setFromWalletId("ivan-wallet");
+        transfer.setToWalletId("judy-wallet");
+        transfer.setAmount(new BigDecimal("25.00"));
+        transfer.setTransactionId(UUID.randomUUID().toString());
+        transfer.setTimestamp(now.plusMillis(5));
+        batch.add(new ConsumerRecord<>("wallet_events", 0, 5, transfer.getWalletId(), transfer));
+        
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        walletEventConsumer.consumeWalletEvents(batch, acknowledgment, consumer);
+        
+        Integer storedOnce = countEvents();
+        List<Map<String, Object>> summariesOnce = summaries();
+        assertThat(storedOnce).isEqualTo(7);
+        assertThat(summariesOnce).hasSize(2);
+        
+        // When - the same batch arrives again, as after a rebalance before the commit
+        walletEventConsumer.consumeWalletEvents(batch, acknowledgment, consumer);
+        
+        // Then - nothing new is stored and the summaries are untouched
+        assertThat(countEvents()).isEqualTo(storedOnce);
+        assertThat(summaries()).isEqualTo(summariesOnce);
+        verify(acknowledgment, times(2)).acknowledge();
+    }
+    
+    private Integer countEvents() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM transaction_events WHERE wallet_id IN ('ivan-wallet', 'judy-wallet')",
+            Integer.class);
+    }
+    
+    private List<Map<String, Object>> summaries() {
+        return jdbcTemplate.queryForList(
+            "SELECT * FROM wallet_daily_summaries WHERE wallet_id IN ('ivan-wallet', 'judy-wallet') "
+                + "ORDER BY wallet_id, day");
+    }
+}
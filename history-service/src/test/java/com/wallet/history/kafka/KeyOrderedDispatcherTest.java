@@ -0,0 +1,182 @@
+package com.wallet.history.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel batch handling and the commit points derived from it: per-key
+ * order, and never committing past the first record a failed lane left
+ * undone.
+ */
+class KeyOrderedDispatcherTest {
+    
+    private static final String TOPIC = "wallet_events";
+    private static final int WORKERS = 4;
+    
+    private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(WORKERS);
+    
+    // Offsets each key was handled in, in handling order
+    private final Map<String, List<Long>> handled = new ConcurrentHashMap<>();
+    
+    // Three keys that land on three different lanes
+    private final String a = keyOnLane(0);
+    private final String b = keyOnLane(1);
+    private final String c = keyOnLane(2);
+    
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+    
+    @Test
+    void shouldKeepPerKeyOrderAndCommitWholeBatch() {
+        // Given - interleaved keys over two partitions
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int offset = 0; offset < 30; offset++) {
+            records.add(record(0, offset, List.of(a, b, c).get(offset % 3)));
+            records.add(record(1, offset, List.of(c, a, b).get(offset % 3)));
+        }
+        
+        // When
+        KeyOrderedDispatcher.Dispatch dispatch = dispatcher.dispatch(records, this::handleAll);
+        PartitionOffsets offsets = PartitionOffsets.of(records, dispatch);
+        
+        // Then - each key saw its records in batch order, and everything is committable
+        for (String key : List.of(a, b, c)) {
+            assertThat(handled.get(key)).hasSize(20);
+        }
+        assertOrderedPerKeyAndPartition(records);
+        assertThat(offsets.firstIncompleteIndex()).isEqualTo(-1);
+        assertThat(offsets.committable()).containsOnly(
+            Map.entry(new TopicPartition(TOPIC, 0), new OffsetAndMetadata(30)),
+            Map.entry(new TopicPartition(TOPIC, 1), new OffsetAndMetadata(30)));
+    }
+    
+    @Test
+    void shouldStopCommitBeforeFirstFailedRecord() {
+        // Given - partition 0: a b c b a b c b a; b fails at offset 5. Partition 1 is all a.
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        String[] keys = {a, b, c, b, a, b, c, b, a};
+        for (int offset = 0; offset < keys.length; offset++) {
+            records.add(record(0, offset, keys[offset]));
+        }
+        for (int offset = 0; offset < 4; offset++) {
+            records.add(record(1, 100 + offset, a));
+        }
+        RuntimeException failure = new IllegalStateException("cannot map");
+        
+        // When - b's lane handles offsets 1 and 3, then reports offset 5 (its lane index 2) as failed
+        KeyOrderedDispatcher.Dispatch dispatch = dispatcher.dispatch(records, lane -> {
+            for (int i = 0; i < lane.size(); i++) {
+                ConsumerRecord<String, String> record = lane.get(i);
+                if (record.partition() == 0 && record.offset() == 5) {
+                    throw new BatchListenerFailedException("cannot map", failure, i);
+                }
+                handle(record);
+            }
+        });
+        PartitionOffsets offsets = PartitionOffsets.of(records, dispatch);
+        
+        // Then - b stopped at the failure; the other lanes went on, in order
+        assertThat(handled.get(b)).containsExactly(1L, 3L);
+        assertThat(handled.get(c)).containsExactly(2L, 6L);
+        assertOrderedPerKeyAndPartition(records);
+        
+        for (int i = 0; i < 5; i++) {
+            assertThat(dispatch.isCompleted(i)).as("offset %d", i).isTrue();
+        }
+        assertThat(dispatch.isCompleted(5)).isFalse();
+        assertThat(dispatch.isCompleted(6)).isTrue();   // Completed on c's lane, beyond the gap
+        assertThat(dispatch.isCompleted(7)).isFalse();  // Behind the failure on b's lane
+        assertThat(dispatch.failureAt(5)).isSameAs(failure);
+        
+        // The commit stops right before offset 5, although 6 and 8 completed; partition 1 is unaffected
+        assertThat(offsets.firstIncompleteIndex()).isEqualTo(5);
+        assertThat(offsets.committable()).containsOnly(
+            Map.entry(new TopicPartition(TOPIC, 0), new OffsetAndMetadata(5)),
+            Map.entry(new TopicPartition(TOPIC, 1), new OffsetAndMetadata(104)));
+    }
+    
+    @Test
+    void shouldFailWholeLaneOnUnexpectedException() {
+        // Given - b is first in the partition and its lane throws outright
+        List<ConsumerRecord<String, String>> records = List.of(
+            record(0, 10, b), record(0, 11, a), record(0, 12, b), record(0, 13, c));
+        RuntimeException failure = new IllegalStateException("database down");
+        
+        // When
+        KeyOrderedDispatcher.Dispatch dispatch = dispatcher.dispatch(records, lane -> {
+            if (lane.get(0).key().equals(b)) {
+                throw failure;
+            }
+            lane.forEach(this::handle);
+        });
+        PartitionOffsets offsets = PartitionOffsets.of(records, dispatch);
+        
+        // Then - nothing of b counts as done, so nothing of the partition is committable
+        assertThat(dispatch.isCompleted(0)).isFalse();
+        assertThat(dispatch.isCompleted(2)).isFalse();
+        assertThat(dispatch.failureAt(0)).isSameAs(failure);
+        assertThat(offsets.firstIncompleteIndex()).isZero();
+        assertThat(offsets.committable()).isEmpty();
+    }
+    
+    private void handleAll(List<ConsumerRecord<String, String>> lane) {
+        lane.forEach(this::handle);
+    }
+    
+    private void handle(ConsumerRecord<String, String> record) {
+        handled.computeIfAbsent(record.key(), key -> new CopyOnWriteArrayList<>()).add(record.offset());
+    }
+    
+    // Within a key, offsets of the same partition were handled in increasing order
+    private void assertOrderedPerKeyAndPartition(List<ConsumerRecord<String, String>> records) {
+        for (Map.Entry<String, List<Long>> entry : handled.entrySet()) {
+            List<Long> offsets = entry.getValue();
+            for (int partition = 0; partition < 2; partition++) {
+                List<Long> inPartition = new ArrayList<>();
+                for (Long offset : offsets) {
+                    if (partitionOf(records, entry.getKey(), offset) == partition) {
+                        inPartition.add(offset);
+                    }
+                }
+                assertThat(inPartition).as("key %s, partition %d", entry.getKey(), partition).isSorted();
+            }
+        }
+    }
+    
+    private static int partitionOf(List<ConsumerRecord<String, String>> records, String key, long offset) {
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.key().equals(key) && record.offset() == offset) {
+                return record.partition();
+            }
+        }
+        throw new IllegalArgumentException("No record " + key + "@" + offset);
+    }
+    
+    private static ConsumerRecord<String, String> record(int partition, long offset, String key) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, key, "event-" + offset);
+    }
+    
+    // Mirrors KeyOrderedDispatcher's striping
+    private static String keyOnLane(int lane) {
+        for (int i = 0; ; i++) {
+            String key = "wallet-" + i;
+            if (Math.floorMod(key.hashCode(), WORKERS) == lane) {
+                return key;
+            }
+        }
+    }
+}
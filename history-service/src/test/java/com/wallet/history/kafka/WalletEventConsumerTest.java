@@ -0,0 +1,172 @@
+package com.wallet.history.kafka;
+
+import com.wallet.common.id.RandomUuidGenerator;
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletFundedEvent;
+import com.wallet.history.entity.TransactionEvent;
+import com.wallet.history.repository.TransactionEventJdbcRepository;
+import com.wallet.history.service.DailySummaryProjection;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WalletEventConsumerTest {
+    
+    private static final String TOPIC = "wallet_events";
+    
+    private final TransactionEventJdbcRepository eventJdbcRepository = mock(TransactionEventJdbcRepository.class);
+    private final DailySummaryProjection summaryProjection = mock(DailySummaryProjection.class);
+    private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(4);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final Consumer<?, ?> consumer = mock(Consumer.class);
+    
+    // Transaction ids of every row handed to insertAll, across lanes
+    private final List<String> stored = new CopyOnWriteArrayList<>();
+    
+    private WalletEventConsumer walletEventConsumer;
+    
+    @BeforeEach
+    void setUp() {
+        when(eventJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<TransactionEvent> rows = invocation.getArgument(0);
+            rows.forEach(row -> stored.add(row.getTransactionId()));
+            return rows;
+        });
+        // A transaction manager that does nothing: the test only checks what the consumer does inside it
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        walletEventConsumer = new WalletEventConsumer(eventJdbcRepository,
+            new TransactionEventMapper(new RandomUuidGenerator()), transactionTemplate, dispatcher, summaryProjection);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+    
+    @Test
+    void shouldIngestBatchAndAcknowledgeOnce() {
+        // Given - 100 funding events over 10 wallets and two partitions
+        List<ConsumerRecord<String, WalletEvent>> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(record(i % 2, i, funded("wallet-" + (i % 10), "tx-" + i)));
+        }
+        
+        // When
+        walletEventConsumer.consumeWalletEvents(records, acknowledgment, consumer);
+        
+        // Then - every event stored and projected, one commit for the whole batch
+        assertThat(stored).hasSize(100);
+        assertThat(stored).containsExactlyInAnyOrderElementsOf(
+            records.stream().map(record -> ((WalletFundedEvent) record.value()).getTransactionId()).toList());
+        verify(summaryProjection, atLeastOnce()).apply(anyList());
+        verify(acknowledgment).acknowledge();
+        verify(consumer, never()).commitSync(anyMap());
+    }
+    
+    @Test
+    void shouldSkipUndecodableRecords() {
+        // Given - the deserializer could not decode the middle record
+        List<ConsumerRecord<String, WalletEvent>> records = List.of(
+            record(0, 0, funded("wallet-1", "tx-0")),
+            record(0, 1, "wallet-1", null),
+            record(0, 2, funded("wallet-1", "tx-2")));
+        
+        // When
+        walletEventConsumer.consumeWalletEvents(records, acknowledgment, consumer);
+        
+        // Then - the rest is stored and the whole batch committed
+        assertThat(stored).containsExactly("tx-0", "tx-2");
+        verify(acknowledgment).acknowledge();
+    }
+    
+    @Test
+    void shouldCommitUpToUnmappableRecordAndReportIt() {
+        // Given - wallet-1's second record has a type the mapper does not know; the other wallet is on another lane
+        String otherWallet = walletOnOtherLane("wallet-1");
+        List<ConsumerRecord<String, WalletEvent>> records = List.of(
+            record(0, 10, funded("wallet-1", "tx-10")),
+            record(0, 11, unknown("wallet-1")),
+            record(0, 12, funded("wallet-1", "tx-12")),
+            record(0, 13, funded(otherWallet, "tx-13")),
+            record(1, 50, funded(otherWallet, "tx-50")));
+        
+        // When / Then - the container is told to retry from the unmappable record
+        assertThatThrownBy(() -> walletEventConsumer.consumeWalletEvents(records, acknowledgment, consumer))
+            .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                assertThat(e.getIndex()).isEqualTo(1);
+                assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+            });
+        
+        // wallet-1 stopped before the failure, the other lane went on
+        assertThat(stored).containsExactlyInAnyOrder("tx-10", "tx-13", "tx-50");
+        
+        // Partition 0 commits only up to the failed record; tx-13 is redelivered and dropped by ON CONFLICT
+        verify(consumer).commitSync(Map.of(
+            new TopicPartition(TOPIC, 0), new OffsetAndMetadata(11),
+            new TopicPartition(TOPIC, 1), new OffsetAndMetadata(51)));
+        verify(acknowledgment, never()).acknowledge();
+    }
+    
+    private static ConsumerRecord<String, WalletEvent> record(int partition, long offset, WalletEvent event) {
+        return record(partition, offset, event.getWalletId(), event);
+    }
+    
+    private static ConsumerRecord<String, WalletEvent> record(int partition, long offset, String key, WalletEvent event) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, key, event);
+    }
+    
+    private static WalletFundedEvent funded(String walletId, String transactionId) {
+        WalletFundedEvent event = new WalletFundedEvent();
+        event.setEventId("event-" + transactionId);
+        event.setWalletId(walletId);
+        event.setUserId("user");
+        event.setTransactionId(transactionId);
+        event.setAmount(new BigDecimal("10.00"));
+        return event;
+    }
+    
+    private static WalletEvent unknown(String walletId) {
+        WalletEvent event = new WalletEvent() {
+            @Override
+            public String getEventType() {
+                return "WALLET_FROZEN";
+            }
+        };
+        event.setWalletId(walletId);
+        return event;
+    }
+    
+    // A wallet id the dispatcher stripes onto a different lane than the given one
+    private static String walletOnOtherLane(String walletId) {
+        for (int i = 0; ; i++) {
+            String other = "wallet-" + i;
+            if (Math.floorMod(other.hashCode(), 4) != Math.floorMod(walletId.hashCode(), 4)) {
+                return other;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.wallet.history.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs partition maintenance against the real schema from init.sql, which
+ * starts with the current month and the next three as partitions.
+ */
+@Testcontainers
+class PartitionMaintenanceServiceIntegrationTest {
+    
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgres:15-alpine"))
+        .withDatabaseName("test_wallet_db")
+        .withUsername("test_user")
+        .withPassword("test_pass")
+        .withCopyFileToContainer(MountableFile.forHostPath("../init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
+    
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    
+    private final YearMonth current = YearMonth.now();
+    
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.update("DELETE FROM transaction_events");
+    }
+    
+    @Test
+    void shouldCreateUpcomingAndDetachExpiredPartitions() {
+        // Given - a month far past retention
+        YearMonth expired = current.minusMonths(30);
+        createPartition(expired);
+        
+        // When - keep five months ahead, detach anything older than 24 months
+        service(5, 24, false).maintain();
+        
+        // Then
+        List<String> attached = attachedPartitions();
+        for (int i = 0; i <= 5; i++) {
+            assertThat(attached).contains(partitionName(current.plusMonths(i)));
+        }
+        assertThat(attached).doesNotContain(partitionName(expired));
+        assertThat(tableExists(partitionName(expired))).isTrue();  // Detached, left to archive
+        
+        // When - dropping is on
+        YearMonth older = current.minusMonths(31);
+        createPartition(older);
+        service(5, 24, true).maintain();
+        
+        // Then - the newly expired month is gone, the already detached one is untouched
+        assertThat(tableExists(partitionName(older))).isFalse();
+        assertThat(tableExists(partitionName(expired))).isTrue();
+    }
+    
+    @Test
+    void shouldMoveDefaultPartitionRowsIntoNewPartition() {
+        // Given - a row for a month with no partition yet, so it sits in the default partition
+        YearMonth future = current.plusMonths(8);
+        insertEvent(future);
+        assertThat(count("transaction_events_default")).isEqualTo(1);
+        
+        // When - maintenance reaches that month
+        service(8, 0, false).maintain();
+        
+        // Then - the row moved to the month's partition, and reads through the parent still find it
+        assertThat(attachedPartitions()).contains(partitionName(future));
+        assertThat(count(partitionName(future))).isEqualTo(1);
+        assertThat(count("transaction_events_default")).isZero();
+        assertThat(count("transaction_events")).isEqualTo(1);
+        
+        // Later runs keep succeeding
+        service(8, 0, false).maintain();
+        assertThat(count(partitionName(future))).isEqualTo(1);
+    }
+    
+    private PartitionMaintenanceService service(int premakeMonths, int retentionMonths, boolean dropExpired) {
+        return new PartitionMaintenanceService(jdbcTemplate, transactionTemplate,
+            premakeMonths, retentionMonths, dropExpired);
+    }
+    
+    private void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE " + partitionName(month) + " PARTITION OF transaction_events"
+            + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+    
+    private void insertEvent(YearMonth month) {
+        jdbcTemplate.update("INSERT INTO transaction_events "
+                + "(id, wallet_id, user_id, amount, event_type, transaction_id, created_at) "
+                + "VALUES (?, 'kim-wallet', 'kim', 10, 'WALLET_FUNDED', ?, ?)",
+            UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+            Timestamp.valueOf(month.atDay(15).atStartOfDay()));
+    }
+    
+    private List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'transaction_events'::regclass", String.class);
+    }
+    
+    private boolean tableExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+    
+    private Integer count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+    
+    private static String partitionName(YearMonth month) {
+        return "transaction_events_" + month.format(MONTH_SUFFIX);
+    }
+}
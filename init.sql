@@ -4,6 +4,7 @@ CREATE TABLE wallets (
     user_id VARCHAR(100) NOT NULL,
     balance DECIMAL(19,4) NOT NULL DEFAULT 0,
     version BIGINT NOT NULL DEFAULT 0,
+    shard_count INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT balance_non_negative CHECK (balance >= 0)
@@ -11,6 +12,16 @@ CREATE TABLE wallets (
 
 CREATE INDEX idx_wallets_user_id ON wallets(user_id);
 
+-- Sub-balances of sharded wallets (owned by Wallet Service)
+CREATE TABLE wallet_balance_shards (
+    wallet_id VARCHAR(36) NOT NULL,
+    shard_index INT NOT NULL,
+    balance DECIMAL(19,4) NOT NULL DEFAULT 0,
+    PRIMARY KEY (wallet_id, shard_index),
+    CONSTRAINT fk_shard_wallet FOREIGN KEY (wallet_id) REFERENCES wallets(id),
+    CONSTRAINT shard_balance_non_negative CHECK (balance >= 0)
+);
+
 -- Wallet transactions table (owned by Wallet Service)
 CREATE TABLE wallet_transactions (
     id VARCHAR(36) PRIMARY KEY,
@@ -28,26 +39,118 @@ CREATE TABLE wallet_transactions (
 CREATE INDEX idx_transactions_wallet_id ON wallet_transactions(wallet_id);
 CREATE INDEX idx_transactions_created_at ON wallet_transactions(created_at DESC);
 
+-- Transfers accepted by POST /api/transfers/async (owned by Wallet Service)
+-- Queued as PENDING and executed in batches by the pending-transfer workers;
+-- rows are kept afterwards so clients can poll the outcome.
+CREATE TABLE pending_transfers (
+    id VARCHAR(36) PRIMARY KEY,
+    from_wallet_id VARCHAR(36) NOT NULL,
+    to_wallet_id VARCHAR(36) NOT NULL,
+    amount DECIMAL(19,4) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    transaction_id VARCHAR(36),
+    failure_reason VARCHAR(255),
+    attempts INT NOT NULL DEFAULT 0,  -- Failed executions so far; FAILED once the limit is reached
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP,
+    CONSTRAINT valid_pending_status CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE INDEX idx_pending_transfers_queue ON pending_transfers(created_at) WHERE status = 'PENDING';
+
+-- Transactional outbox (owned by Wallet Service)
+-- Events are written here in the same transaction as the wallet rows and
+-- relayed to Kafka in batches; relayed rows are deleted.
+CREATE SEQUENCE outbox_events_seq;
+
+CREATE TABLE outbox_events (
+    id BIGINT PRIMARY KEY DEFAULT nextval('outbox_events_seq'),
+    aggregate_id VARCHAR(36) NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    payload BYTEA NOT NULL,  -- WalletEventCodec encoding, relayed to Kafka as is
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Idempotency keys for fund/transfer retries (owned by Wallet Service)
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    operation VARCHAR(30) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_status INT,
+    response_body TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_idempotency_created_at ON idempotency_keys(created_at);
+
 -- Transaction events table (owned by History Service)
+-- Range-partitioned by month on created_at (the event's own timestamp).
+-- history-service pre-creates upcoming months and retires expired ones;
+-- rows outside every month land in the default partition.
 CREATE TABLE transaction_events (
-    id VARCHAR(36) PRIMARY KEY,
+    id VARCHAR(36) NOT NULL,
     wallet_id VARCHAR(36) NOT NULL,
     user_id VARCHAR(100) NOT NULL,
     amount DECIMAL(19,4) NOT NULL,
     event_type VARCHAR(30) NOT NULL,
-    transaction_id VARCHAR(36),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    transaction_id VARCHAR(36) NOT NULL,
+    direction VARCHAR(4) NOT NULL DEFAULT 'NONE',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     event_data JSONB,
-    CONSTRAINT valid_event_type CHECK (event_type IN ('WALLET_CREATED', 'WALLET_FUNDED', 'TRANSFER_COMPLETED', 'TRANSFER_FAILED'))
-);
+    -- Unique keys on a partitioned table must include the partition key
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT valid_event_type CHECK (event_type IN ('WALLET_CREATED', 'WALLET_FUNDED', 'TRANSFER_COMPLETED', 'TRANSFER_FAILED')),
+    CONSTRAINT valid_direction CHECK (direction IN ('NONE', 'OUT', 'IN')),
+    -- Dedupe key: the consumer inserts with ON CONFLICT DO NOTHING on it
+    CONSTRAINT uq_events_transaction_direction UNIQUE (transaction_id, direction, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE transaction_events_default PARTITION OF transaction_events DEFAULT;
+
+-- Current month and the next three, named transaction_events_yYYYYmMM
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR i IN 0..3 LOOP
+        month := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::date;
+        EXECUTE format('CREATE TABLE %I PARTITION OF transaction_events FOR VALUES FROM (%L) TO (%L)',
+            'transaction_events_' || to_char(month, '"y"YYYY"m"MM'), month, (month + interval '1 month')::date);
+    END LOOP;
+END $$;
 
-CREATE INDEX idx_events_wallet_id ON transaction_events(wallet_id);
-CREATE INDEX idx_events_user_id ON transaction_events(user_id);
-CREATE INDEX idx_events_transaction_id ON transaction_events(transaction_id);
+-- Keyset pagination: one (filter, created_at DESC, id DESC) index per listing,
+-- so each page is an index range scan that stops after LIMIT rows
+CREATE INDEX idx_events_wallet_page ON transaction_events(wallet_id, created_at DESC, id DESC);
+CREATE INDEX idx_events_user_page ON transaction_events(user_id, created_at DESC, id DESC);
+CREATE INDEX idx_events_type_page ON transaction_events(event_type, created_at DESC, id DESC);
 CREATE INDEX idx_events_created_at ON transaction_events(created_at DESC);
 
+-- Per-wallet, per-day totals (owned by History Service)
+-- Maintained by the consumer in the same transaction as transaction_events;
+-- sums are positive amounts, credits/debits include the transfer columns.
+CREATE TABLE wallet_daily_summaries (
+    wallet_id VARCHAR(36) NOT NULL,
+    day DATE NOT NULL,
+    credits_count BIGINT NOT NULL DEFAULT 0,
+    credits_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    debits_count BIGINT NOT NULL DEFAULT 0,
+    debits_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    transfers_in_count BIGINT NOT NULL DEFAULT 0,
+    transfers_in_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    transfers_out_count BIGINT NOT NULL DEFAULT 0,
+    transfers_out_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    PRIMARY KEY (wallet_id, day)
+);
+
 -- Comments for documentation
 COMMENT ON TABLE wallets IS 'Current wallet balances - source of truth for money';
 COMMENT ON TABLE wallet_transactions IS 'Transaction log for wallet operations';
+COMMENT ON TABLE pending_transfers IS 'Asynchronously submitted transfers and their outcome';
+COMMENT ON TABLE outbox_events IS 'Wallet events pending relay to Kafka';
+COMMENT ON TABLE idempotency_keys IS 'Idempotency-Key header values and the response each produced';
 COMMENT ON TABLE transaction_events IS 'Event-sourced history built from Kafka events';
-COMMENT ON COLUMN wallets.version IS 'Optimistic locking version number';
\ No newline at end of file
+COMMENT ON TABLE wallet_daily_summaries IS 'Daily per-wallet credit/debit/transfer counts and sums projected from transaction_events';
+COMMENT ON COLUMN wallets.version IS 'Optimistic locking version number';
+COMMENT ON COLUMN transaction_events.direction IS 'OUT/IN for the two rows of a transfer, NONE otherwise';
+COMMENT ON COLUMN wallets.shard_count IS '0 = balance held in this row; N = balance split across N wallet_balance_shards rows';
\ No newline at end of file
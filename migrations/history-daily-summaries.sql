@@ -0,0 +1,44 @@
+-- Migration: add the wallet_daily_summaries projection and build it from
+-- the history already in transaction_events.
+--
+-- Days are created_at::date, matching the consumer, which derives them in
+-- the history-service JVM's zone (created_at is stored in that zone too).
+--
+-- Stop the history consumer while this runs. Otherwise events ingested
+-- between the backfill and the restart are counted twice or not at all.
+
+BEGIN;
+
+CREATE TABLE wallet_daily_summaries (
+    wallet_id VARCHAR(36) NOT NULL,
+    day DATE NOT NULL,
+    credits_count BIGINT NOT NULL DEFAULT 0,
+    credits_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    debits_count BIGINT NOT NULL DEFAULT 0,
+    debits_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    transfers_in_count BIGINT NOT NULL DEFAULT 0,
+    transfers_in_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    transfers_out_count BIGINT NOT NULL DEFAULT 0,
+    transfers_out_sum DECIMAL(19,4) NOT NULL DEFAULT 0,
+    PRIMARY KEY (wallet_id, day)
+);
+
+INSERT INTO wallet_daily_summaries
+SELECT wallet_id,
+       created_at::date,
+       COUNT(*) FILTER (WHERE event_type = 'WALLET_FUNDED' OR direction = 'IN'),
+       COALESCE(SUM(ABS(amount)) FILTER (WHERE event_type = 'WALLET_FUNDED' OR direction = 'IN'), 0),
+       COUNT(*) FILTER (WHERE direction = 'OUT'),
+       COALESCE(SUM(ABS(amount)) FILTER (WHERE direction = 'OUT'), 0),
+       COUNT(*) FILTER (WHERE direction = 'IN'),
+       COALESCE(SUM(ABS(amount)) FILTER (WHERE direction = 'IN'), 0),
+       COUNT(*) FILTER (WHERE direction = 'OUT'),
+       COALESCE(SUM(ABS(amount)) FILTER (WHERE direction = 'OUT'), 0)
+  FROM transaction_events
+ WHERE event_type = 'WALLET_FUNDED'
+    OR (event_type = 'TRANSFER_COMPLETED' AND direction IN ('IN', 'OUT'))
+ GROUP BY wallet_id, created_at::date;
+
+COMMENT ON TABLE wallet_daily_summaries IS 'Daily per-wallet credit/debit/transfer counts and sums projected from transaction_events';
+
+COMMIT;
@@ -0,0 +1,41 @@
+-- Migration: model the history consumer's dedupe key as a unique
+-- constraint on transaction_events(transaction_id, direction), so ingest
+-- can use INSERT ... ON CONFLICT DO NOTHING instead of check-then-insert.
+--
+-- Transfer rows used to be told apart by appending "-IN" to the
+-- receiver's transaction_id; that moves into the new direction column.
+-- Duplicates left behind by the old racy check are removed, keeping the
+-- earliest row. Deploy the new history-service after this has run.
+
+BEGIN;
+
+ALTER TABLE transaction_events ADD COLUMN direction VARCHAR(4) NOT NULL DEFAULT 'NONE';
+
+UPDATE transaction_events
+   SET direction = 'IN',
+       transaction_id = left(transaction_id, length(transaction_id) - 3)
+ WHERE event_type = 'TRANSFER_COMPLETED' AND transaction_id LIKE '%-IN';
+
+UPDATE transaction_events
+   SET direction = 'OUT'
+ WHERE event_type = 'TRANSFER_COMPLETED' AND direction = 'NONE';
+
+DELETE FROM transaction_events e
+ USING transaction_events keep
+ WHERE e.transaction_id = keep.transaction_id
+   AND e.direction = keep.direction
+   AND (e.created_at, e.id) > (keep.created_at, keep.id);
+
+-- Rows without a transaction id cannot be deduped; the consumer always sets one
+DELETE FROM transaction_events WHERE transaction_id IS NULL;
+ALTER TABLE transaction_events ALTER COLUMN transaction_id SET NOT NULL;
+
+ALTER TABLE transaction_events
+    ADD CONSTRAINT valid_direction CHECK (direction IN ('NONE', 'OUT', 'IN'));
+ALTER TABLE transaction_events
+    ADD CONSTRAINT uq_events_transaction_direction UNIQUE (transaction_id, direction);
+
+-- The unique index has transaction_id as its leading column
+DROP INDEX IF EXISTS idx_events_transaction_id;
+
+COMMIT;
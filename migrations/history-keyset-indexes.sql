@@ -0,0 +1,17 @@
+-- Migration: composite indexes for the keyset-paginated history listings
+-- (wallet history, user activity, events by type).
+--
+-- CONCURRENTLY avoids blocking the consumer's inserts, but cannot run
+-- inside a transaction block: run each statement on its own (psql
+-- autocommit). The single-column wallet_id and user_id indexes become
+-- redundant prefixes of the new ones and are dropped afterwards.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_wallet_page
+    ON transaction_events(wallet_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_user_page
+    ON transaction_events(user_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_type_page
+    ON transaction_events(event_type, created_at DESC, id DESC);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_events_wallet_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_events_user_id;
@@ -0,0 +1,86 @@
+-- Migration: convert transaction_events to a table range-partitioned by
+-- month on created_at.
+--
+-- created_at becomes the event's own timestamp (history-service now writes
+-- it that way), so redelivered events hit the same dedupe key and month.
+-- Existing rows are backfilled from event_data.originalTimestamp. The
+-- timestamptz -> timestamp cast uses the session TimeZone: run this with
+-- the same zone as the history-service JVM.
+--
+-- The primary key and the dedupe constraint must include created_at.
+-- Partitions are created for every month that has rows, plus the next
+-- three; history-service keeps the window rolling from then on.
+--
+-- Copies the whole table under an ACCESS EXCLUSIVE lock on the old one:
+-- stop history-service (or its consumer) and run in a maintenance window.
+
+BEGIN;
+
+LOCK TABLE transaction_events IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE transaction_events RENAME TO transaction_events_unpartitioned;
+ALTER TABLE transaction_events_unpartitioned RENAME CONSTRAINT transaction_events_pkey
+    TO transaction_events_unpartitioned_pkey;
+ALTER TABLE transaction_events_unpartitioned RENAME CONSTRAINT uq_events_transaction_direction
+    TO uq_events_transaction_direction_old;
+ALTER INDEX idx_events_wallet_page RENAME TO idx_events_wallet_page_old;
+ALTER INDEX idx_events_user_page RENAME TO idx_events_user_page_old;
+ALTER INDEX idx_events_type_page RENAME TO idx_events_type_page_old;
+ALTER INDEX idx_events_created_at RENAME TO idx_events_created_at_old;
+
+UPDATE transaction_events_unpartitioned
+   SET created_at = (event_data->>'originalTimestamp')::timestamptz::timestamp
+ WHERE event_data ? 'originalTimestamp';
+
+CREATE TABLE transaction_events (
+    id VARCHAR(36) NOT NULL,
+    wallet_id VARCHAR(36) NOT NULL,
+    user_id VARCHAR(100) NOT NULL,
+    amount DECIMAL(19,4) NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    transaction_id VARCHAR(36) NOT NULL,
+    direction VARCHAR(4) NOT NULL DEFAULT 'NONE',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    event_data JSONB,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT valid_event_type CHECK (event_type IN ('WALLET_CREATED', 'WALLET_FUNDED', 'TRANSFER_COMPLETED', 'TRANSFER_FAILED')),
+    CONSTRAINT valid_direction CHECK (direction IN ('NONE', 'OUT', 'IN')),
+    CONSTRAINT uq_events_transaction_direction UNIQUE (transaction_id, direction, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE transaction_events_default PARTITION OF transaction_events DEFAULT;
+
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN
+        SELECT generate_series(
+            date_trunc('month', LEAST(
+                COALESCE((SELECT MIN(created_at) FROM transaction_events_unpartitioned), CURRENT_DATE),
+                CURRENT_DATE)),
+            date_trunc('month', CURRENT_DATE) + interval '3 months',
+            interval '1 month')::date
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transaction_events FOR VALUES FROM (%L) TO (%L)',
+            'transaction_events_' || to_char(month, '"y"YYYY"m"MM'), month, (month + interval '1 month')::date);
+    END LOOP;
+END $$;
+
+CREATE INDEX idx_events_wallet_page ON transaction_events(wallet_id, created_at DESC, id DESC);
+CREATE INDEX idx_events_user_page ON transaction_events(user_id, created_at DESC, id DESC);
+CREATE INDEX idx_events_type_page ON transaction_events(event_type, created_at DESC, id DESC);
+CREATE INDEX idx_events_created_at ON transaction_events(created_at DESC);
+
+-- The backfill can make two old rows share a dedupe key; keep the first
+INSERT INTO transaction_events
+SELECT id, wallet_id, user_id, amount, event_type, transaction_id, direction, created_at, event_data
+  FROM transaction_events_unpartitioned
+ON CONFLICT DO NOTHING;
+
+DROP TABLE transaction_events_unpartitioned;
+
+COMMENT ON TABLE transaction_events IS 'Event-sourced history built from Kafka events';
+COMMENT ON COLUMN transaction_events.direction IS 'OUT/IN for the two rows of a transfer, NONE otherwise';
+
+COMMIT;
@@ -0,0 +1,33 @@
+-- Optional migration: store generated ids as native uuid (16 bytes)
+-- instead of VARCHAR(36).
+--
+-- Every id column whose values are always minted by a service's
+-- IdGenerator is converted: the primary keys of wallet_transactions,
+-- pending_transfers and transaction_events, and
+-- pending_transfers.transaction_id.
+--
+-- Out of scope: wallets.id and every column referring to a wallet
+-- (wallet_id, from/to_wallet_id, reference_wallet_id, aggregate_id) stay
+-- VARCHAR(36), as wallet ids can be supplied from outside and are not
+-- guaranteed to be UUIDs. transaction_events.transaction_id stays too: it
+-- copies ids from the events, which need not come from this code base.
+--
+-- The entities keep String ids. Add stringtype=unspecified to the JDBC URL
+-- of both services so String parameters are accepted for uuid columns:
+--   jdbc:postgresql://localhost:5432/wallet_db?stringtype=unspecified
+--
+-- Each ALTER rewrites its table and rebuilds its indexes under an ACCESS
+-- EXCLUSIVE lock; run it in a maintenance window. The cast fails on any row
+-- whose id is not a valid UUID.
+
+BEGIN;
+
+ALTER TABLE wallet_transactions ALTER COLUMN id TYPE uuid USING id::uuid;
+
+ALTER TABLE pending_transfers ALTER COLUMN id TYPE uuid USING id::uuid;
+ALTER TABLE pending_transfers ALTER COLUMN transaction_id TYPE uuid USING transaction_id::uuid;
+
+-- Propagates to every partition, including the default one
+ALTER TABLE transaction_events ALTER COLUMN id TYPE uuid USING id::uuid;
+
+COMMIT;
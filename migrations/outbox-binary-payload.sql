@@ -0,0 +1,23 @@
+-- Migration: outbox payloads and Kafka records move from polymorphic JSON
+-- to the WalletEventCodec binary encoding (wallet-events module).
+--
+-- Neither format is readable by the other side, so cut over in order:
+--   1. Stop traffic to wallet-service, wait until the relay has emptied
+--      outbox_events, stop it, and let history-service consume
+--      wallet_events to the end (consumer lag 0).
+--   2. Apply this script. It refuses to run while unrelayed JSON rows are
+--      still in the outbox.
+--   3. Deploy history-service, then wallet-service, with the new codec.
+
+BEGIN;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM outbox_events) THEN
+        RAISE EXCEPTION 'outbox_events is not empty; let the relay drain it first';
+    END IF;
+END $$;
+
+ALTER TABLE outbox_events ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8');
+
+COMMIT;
@@ -0,0 +1,9 @@
+-- Migration: outbox ids are taken from the sequence one at a time again
+-- (allocationSize = 1 in OutboxEvent) so that one wallet's events are
+-- numbered, and relayed, in commit order.
+--
+-- Deploy wallet-service with the new mapping right after applying this:
+-- Hibernate refuses to start when the entity's allocation size and the
+-- sequence increment disagree.
+
+ALTER SEQUENCE outbox_events_seq INCREMENT BY 1;
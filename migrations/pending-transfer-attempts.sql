@@ -0,0 +1,5 @@
+-- Migration: count failed executions of queued async transfers, so a
+-- transfer that keeps failing its batch is marked FAILED instead of being
+-- retried forever. Safe to apply while wallet-service is running.
+
+ALTER TABLE pending_transfers ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
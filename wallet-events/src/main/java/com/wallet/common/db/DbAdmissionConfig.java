@@ -0,0 +1,44 @@
+package com.wallet.common.db;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link DbAdmissionLimiter} sized to the Hikari pool in front of
+ * the application's DataSource, so every repository call goes through it.
+ * Auto-configured in every service that has this module on its classpath;
+ * set {@code db-admission.enabled=false} to opt out.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "db-admission.enabled", havingValue = "true", matchIfMissing = true)
+public class DbAdmissionConfig {
+    
+    @Bean
+    public DbAdmissionLimiter dbAdmissionLimiter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${db-admission.max-queue:5000}") int maxQueue,
+            @Value("${db-admission.max-wait:30s}") Duration maxWait) {
+        return new DbAdmissionLimiter(poolSize, maxQueue, maxWait);
+    }
+    
+    // Static so the post-processor is registered without initializing this class early
+    @Bean
+    public static BeanPostProcessor dbAdmissionDataSourceWrapper(ObjectProvider<DbAdmissionLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AdmissionControlledDataSource)) {
+                    return new AdmissionControlledDataSource(dataSource, limiter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
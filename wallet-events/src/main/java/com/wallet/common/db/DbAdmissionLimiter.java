@@ -0,0 +1,92 @@
+package com.wallet.common.db;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the connection pool.
+ *
+ * Holds one permit per pooled connection, so callers queue here (FIFO)
+ * instead of inside Hikari. On virtual threads that wait is just a parked
+ * continuation, which lets thousands of requests queue cheaply. Once
+ * {@code maxQueue} callers are already waiting, new ones are turned away
+ * immediately rather than piling up until they time out.
+ */
+public class DbAdmissionLimiter implements MeterBinder {
+    
+    private final int maxPermits;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    
+    public DbAdmissionLimiter(int maxPermits, int maxQueue, Duration maxWait) {
+        this.maxPermits = maxPermits;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxPermits, true);
+    }
+    
+    public void acquire() throws SQLTransientConnectionException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new SQLTransientConnectionException(
+                "Database admission queue is full (" + maxQueue + " waiting)");
+        }
+        try {
+            if (!permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new SQLTransientConnectionException(
+                    "Timed out after " + maxWait.toMillis() + "ms waiting for database admission");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for database admission", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+    
+    public void release() {
+        permits.release();
+    }
+    
+    public int getWaiting() {
+        return waiting.get();
+    }
+    
+    public int getActive() {
+        return maxPermits - permits.availablePermits();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.admission.waiting", waiting, AtomicInteger::get)
+            .description("Callers queued for a database connection permit")
+            .register(registry);
+        Gauge.builder("db.admission.active", this, DbAdmissionLimiter::getActive)
+            .description("Connection permits currently held")
+            .register(registry);
+        Gauge.builder("db.admission.permits", () -> maxPermits)
+            .description("Connection permits available in total")
+            .register(registry);
+        FunctionCounter.builder("db.admission.rejected", rejected, LongAdder::doubleValue)
+            .description("Callers turned away because the queue was full or the wait timed out")
+            .register(registry);
+    }
+}
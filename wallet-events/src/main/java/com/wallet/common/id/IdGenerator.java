@@ -0,0 +1,16 @@
+package com.wallet.common.id;
+
+import java.util.UUID;
+
+/**
+ * Source of primary keys and event ids. The implementation is chosen by
+ * {@code ids.generator} (see {@code IdGeneratorConfig}).
+ */
+public interface IdGenerator {
+    
+    UUID newUuid();
+    
+    default String newId() {
+        return newUuid().toString();
+    }
+}
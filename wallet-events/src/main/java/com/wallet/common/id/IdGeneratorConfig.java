@@ -0,0 +1,23 @@
+package com.wallet.common.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+// Auto-configured in every service that has this module on its classpath
+@AutoConfiguration
+public class IdGeneratorConfig {
+    
+    // uuidv7 (time-ordered, default) or random (UUIDv4)
+    @Bean
+    public IdGenerator idGenerator(@Value("${ids.generator:uuidv7}") String generator) {
+        switch (generator) {
+            case "uuidv7":
+                return new UuidV7Generator();
+            case "random":
+                return new RandomUuidGenerator();
+            default:
+                throw new IllegalArgumentException("Unknown id generator: " + generator);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.wallet.common.id;
+
+import java.util.UUID;
+
+/**
+ * The previous behaviour: random version 4 UUIDs.
+ */
+public class RandomUuidGenerator implements IdGenerator {
+    
+    @Override
+    public UUID newUuid() {
+        return UUID.randomUUID();
+    }
+}
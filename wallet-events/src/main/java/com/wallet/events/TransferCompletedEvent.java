@@ -1,11 +1,11 @@
-package com.wallet.history.event;
+package com.wallet.events;
 
 import java.math.BigDecimal;
 
 public class TransferCompletedEvent extends WalletEvent {
     private String fromWalletId;
     private String toWalletId;
-    private BigDecimal amount;
+    private long amountMinor;  // Fixed-point minor units (1/10000)
     private String transactionId;
 
     // Getters and setters
@@ -15,8 +15,11 @@ public class TransferCompletedEvent extends WalletEvent {
     public String getToWalletId() { return toWalletId; }
     public void setToWalletId(String toWalletId) { this.toWalletId = toWalletId; }
     
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public long getAmountMinor() { return amountMinor; }
+    public void setAmountMinor(long amountMinor) { this.amountMinor = amountMinor; }
+    
+    public BigDecimal getAmount() { return BigDecimal.valueOf(amountMinor, AMOUNT_SCALE); }
+    public void setAmount(BigDecimal amount) { this.amountMinor = amount.movePointRight(AMOUNT_SCALE).longValueExact(); }
     
     public String getTransactionId() { return transactionId; }
     public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
@@ -25,4 +28,4 @@ public class TransferCompletedEvent extends WalletEvent {
     public String getEventType() {
         return "TRANSFER_COMPLETED";
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,8 @@
-package com.wallet.history.event;
+package com.wallet.events;
 
 public class WalletCreatedEvent extends WalletEvent {
     @Override
     public String getEventType() {
         return "WALLET_CREATED";
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,16 @@
-package com.wallet.history.event;
+package com.wallet.events;
 
-import com.fasterxml.jackson.annotation.JsonSubTypes;
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import java.math.BigDecimal;
 import java.time.Instant;
 
-@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "eventType")
-@JsonSubTypes({
-    @JsonSubTypes.Type(value = WalletCreatedEvent.class, name = "WALLET_CREATED"),
-    @JsonSubTypes.Type(value = WalletFundedEvent.class, name = "WALLET_FUNDED"),
-    @JsonSubTypes.Type(value = TransferCompletedEvent.class, name = "TRANSFER_COMPLETED")
-})
+/**
+ * Base of the events wallet-service publishes to Kafka and history-service
+ * consumes. Encoded with {@link WalletEventCodec}.
+ */
 public abstract class WalletEvent {
+    
+    // Amounts travel as long minor units at DECIMAL(19,4) precision
+    public static final int AMOUNT_SCALE = 4;
+    
     private String eventId;
     private String walletId;
     private String userId;
@@ -35,4 +34,4 @@ public abstract class WalletEvent {
     public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
     
     public abstract String getEventType();
-}
\ No newline at end of file
+}
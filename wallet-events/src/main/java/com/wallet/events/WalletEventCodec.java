@@ -0,0 +1,273 @@
+package com.wallet.events;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link WalletEvent}s.
+ *
+ * Layout (big-endian), schema version 1:
+ * <pre>
+ *   u8  version            currently 1
+ *   u8  type tag           1 created, 2 funded, 3 transfer completed
+ *   id  eventId, walletId
+ *   str userId
+ *   i64 timestamp seconds, i32 nanos
+ *   funded:   i64 amountMinor, id transactionId
+ *   transfer: id fromWalletId, id toWalletId, i64 amountMinor, id transactionId
+ * </pre>
+ * An {@code id} is a one-byte tag followed by 16 raw bytes for a
+ * canonical lower-case UUID (every id the services mint), or by a
+ * {@code str} for anything else; tag 0 is null. A {@code str} is a u16
+ * UTF-8 length ({@code 0xFFFF} for null) and the bytes. Amounts stay in
+ * fixed-point minor units end to end.
+ *
+ * A funded event is about 80 bytes against roughly 270 as JSON. Encoding
+ * sizes the output exactly and writes it in one pass; decoding allocates
+ * only the event and its strings. New fields go into a new version; the
+ * decoder rejects versions it does not know instead of guessing.
+ */
+public final class WalletEventCodec {
+    
+    public static final byte VERSION = 1;
+    
+    static final byte TYPE_CREATED = 1;
+    static final byte TYPE_FUNDED = 2;
+    static final byte TYPE_TRANSFER_COMPLETED = 3;
+    
+    private static final byte ID_NULL = 0;
+    private static final byte ID_UUID = 1;
+    private static final byte ID_STRING = 2;
+    
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    
+    private WalletEventCodec() {}
+    
+    public static byte[] encode(WalletEvent event) {
+        byte[] out = new byte[sizeOf(event)];
+        ByteBuffer buffer = ByteBuffer.wrap(out);
+        buffer.put(VERSION);
+        buffer.put(typeTag(event));
+        putId(buffer, event.getEventId());
+        putId(buffer, event.getWalletId());
+        putString(buffer, event.getUserId());
+        Instant timestamp = event.getTimestamp();
+        buffer.putLong(timestamp == null ? NULL_TIMESTAMP : timestamp.getEpochSecond());
+        buffer.putInt(timestamp == null ? 0 : timestamp.getNano());
+        
+        if (event instanceof WalletFundedEvent funded) {
+            buffer.putLong(funded.getAmountMinor());
+            putId(buffer, funded.getTransactionId());
+        } else if (event instanceof TransferCompletedEvent transfer) {
+            putId(buffer, transfer.getFromWalletId());
+            putId(buffer, transfer.getToWalletId());
+            buffer.putLong(transfer.getAmountMinor());
+            putId(buffer, transfer.getTransactionId());
+        }
+        return out;
+    }
+    
+    public static WalletEvent decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+    
+    public static WalletEvent decode(byte[] data, int offset, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported wallet event schema version: " + version);
+            }
+            byte type = buffer.get();
+            WalletEvent event = switch (type) {
+                case TYPE_CREATED -> new WalletCreatedEvent();
+                case TYPE_FUNDED -> new WalletFundedEvent();
+                case TYPE_TRANSFER_COMPLETED -> new TransferCompletedEvent();
+                default -> throw new IllegalArgumentException("Unknown wallet event type tag: " + type);
+            };
+            event.setEventId(getId(buffer));
+            event.setWalletId(getId(buffer));
+            event.setUserId(getString(buffer));
+            long seconds = buffer.getLong();
+            int nanos = buffer.getInt();
+            event.setTimestamp(seconds == NULL_TIMESTAMP ? null : Instant.ofEpochSecond(seconds, nanos));
+            
+            if (event instanceof WalletFundedEvent funded) {
+                funded.setAmountMinor(buffer.getLong());
+                funded.setTransactionId(getId(buffer));
+            } else if (event instanceof TransferCompletedEvent transfer) {
+                transfer.setFromWalletId(getId(buffer));
+                transfer.setToWalletId(getId(buffer));
+                transfer.setAmountMinor(buffer.getLong());
+                transfer.setTransactionId(getId(buffer));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException(
+                    "Trailing bytes after " + event.getEventType() + " event: " + buffer.remaining());
+            }
+            return event;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated wallet event (" + length + " bytes)", e);
+        }
+    }
+    
+    static int sizeOf(WalletEvent event) {
+        int size = 2 + idSize(event.getEventId()) + idSize(event.getWalletId())
+            + stringSize(event.getUserId()) + 12;
+        if (event instanceof WalletFundedEvent funded) {
+            size += 8 + idSize(funded.getTransactionId());
+        } else if (event instanceof TransferCompletedEvent transfer) {
+            size += idSize(transfer.getFromWalletId()) + idSize(transfer.getToWalletId())
+                + 8 + idSize(transfer.getTransactionId());
+        }
+        return size;
+    }
+    
+    private static byte typeTag(WalletEvent event) {
+        if (event instanceof WalletCreatedEvent) {
+            return TYPE_CREATED;
+        }
+        if (event instanceof WalletFundedEvent) {
+            return TYPE_FUNDED;
+        }
+        if (event instanceof TransferCompletedEvent) {
+            return TYPE_TRANSFER_COMPLETED;
+        }
+        throw new IllegalArgumentException("No type tag for event: " + event.getClass().getName());
+    }
+    
+    // Ids
+    
+    private static int idSize(String id) {
+        if (id == null) {
+            return 1;
+        }
+        return isCanonicalUuid(id) ? 17 : 1 + stringSize(id);
+    }
+    
+    private static void putId(ByteBuffer buffer, String id) {
+        if (id == null) {
+            buffer.put(ID_NULL);
+        } else if (isCanonicalUuid(id)) {
+            buffer.put(ID_UUID);
+            buffer.putLong(hexBits(id, 0, 8) << 32 | hexBits(id, 9, 13) << 16 | hexBits(id, 14, 18));
+            buffer.putLong(hexBits(id, 19, 23) << 48 | hexBits(id, 24, 36));
+        } else {
+            buffer.put(ID_STRING);
+            putString(buffer, id);
+        }
+    }
+    
+    private static String getId(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        return switch (tag) {
+            case ID_NULL -> null;
+            case ID_UUID -> new UUID(buffer.getLong(), buffer.getLong()).toString();
+            case ID_STRING -> getString(buffer);
+            default -> throw new IllegalArgumentException("Unknown id tag: " + tag);
+        };
+    }
+    
+    // Only the exact form UUID.toString() produces, so decoding gives back the same string
+    private static boolean isCanonicalUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long hexBits(String s, int from, int to) {
+        long bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            bits = bits << 4 | (c <= '9' ? c - '0' : c - 'a' + 10);
+        }
+        return bits;
+    }
+    
+    // Strings
+    
+    private static int stringSize(String s) {
+        return 2 + (s == null ? 0 : utf8Length(s));
+    }
+    
+    private static void putString(ByteBuffer buffer, String s) {
+        if (s == null) {
+            buffer.putShort((short) NULL_LENGTH);
+            return;
+        }
+        int length = utf8Length(s);
+        if (length >= NULL_LENGTH) {
+            throw new IllegalArgumentException("String too long for wallet event: " + length + " bytes");
+        }
+        buffer.putShort((short) length);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put((byte) (0xF0 | cp >> 18));
+                buffer.put((byte) (0x80 | cp >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | cp >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');  // Unpaired surrogate, as String.getBytes(UTF_8) does
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+    
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+            StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+    
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,25 @@
+package com.wallet.events;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer for {@link WalletEvent}s ({@link WalletEventCodec}
+ * format). Malformed records surface as {@link SerializationException},
+ * which an {@code ErrorHandlingDeserializer} turns into a per-record
+ * failure instead of a stuck partition.
+ */
+public class WalletEventDeserializer implements Deserializer<WalletEvent> {
+    
+    @Override
+    public WalletEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return WalletEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Could not decode wallet event from " + topic, e);
+        }
+    }
+}
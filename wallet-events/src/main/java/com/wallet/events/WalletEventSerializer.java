@@ -0,0 +1,16 @@
+package com.wallet.events;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer for {@link WalletEvent}s ({@link WalletEventCodec}
+ * format). Stateless: one exactly sized array per record, no
+ * intermediate buffers.
+ */
+public class WalletEventSerializer implements Serializer<WalletEvent> {
+    
+    @Override
+    public byte[] serialize(String topic, WalletEvent event) {
+        return event == null ? null : WalletEventCodec.encode(event);
+    }
+}
@@ -0,0 +1,23 @@
+package com.wallet.events;
+
+import java.math.BigDecimal;
+
+public class WalletFundedEvent extends WalletEvent {
+    private long amountMinor;  // Fixed-point minor units (1/10000)
+    private String transactionId;
+
+    // Getters and setters
+    public long getAmountMinor() { return amountMinor; }
+    public void setAmountMinor(long amountMinor) { this.amountMinor = amountMinor; }
+    
+    public BigDecimal getAmount() { return BigDecimal.valueOf(amountMinor, AMOUNT_SCALE); }
+    public void setAmount(BigDecimal amount) { this.amountMinor = amount.movePointRight(AMOUNT_SCALE).longValueExact(); }
+    
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+
+    @Override
+    public String getEventType() {
+        return "WALLET_FUNDED";
+    }
+}
@@ -0,0 +1,64 @@
+package com.wallet.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WalletEventCodecTest {
+    
+    @Test
+    void shouldRoundTripEveryEventType() {
+        WalletCreatedEvent created = new WalletCreatedEvent();
+        fillCommon(created);
+        
+        WalletFundedEvent funded = new WalletFundedEvent();
+        fillCommon(funded);
+        funded.setAmount(new BigDecimal("100.0050"));
+        funded.setTransactionId(UUID.randomUUID().toString());
+        
+        TransferCompletedEvent transfer = new TransferCompletedEvent();
+        fillCommon(transfer);
+        transfer.setFromWalletId(transfer.getWalletId());
+        transfer.setToWalletId("bob-wallet");  // Not a UUID: travels as a string
+        transfer.setAmountMinor(300_000L);
+        transfer.setTransactionId(null);
+        
+        for (WalletEvent event : new WalletEvent[] {created, funded, transfer}) {
+            byte[] encoded = WalletEventCodec.encode(event);
+            assertThat(encoded).hasSize(WalletEventCodec.sizeOf(event));
+            
+            WalletEvent decoded = WalletEventCodec.decode(encoded);
+            assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+        }
+        assertThat(WalletEventCodec.encode(funded)).hasSizeLessThan(100);
+    }
+    
+    @Test
+    void shouldRejectUnknownVersionAndTruncatedInput() {
+        WalletFundedEvent funded = new WalletFundedEvent();
+        fillCommon(funded);
+        byte[] encoded = WalletEventCodec.encode(funded);
+        
+        byte[] future = encoded.clone();
+        future[0] = 2;
+        assertThatThrownBy(() -> WalletEventCodec.decode(future))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("schema version");
+        
+        assertThatThrownBy(() -> WalletEventCodec.decode(encoded, 0, encoded.length - 3))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Truncated");
+    }
+    
+    private static void fillCommon(WalletEvent event) {
+        event.setEventId(UUID.randomUUID().toString());
+        event.setWalletId(UUID.randomUUID().toString());
+        event.setUserId("zoë");  // Multi-byte UTF-8
+        event.setTimestamp(Instant.parse("2024-05-01T12:34:56.123456789Z"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.wallet.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.service.entity.Wallet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * In-process read-through cache for wallet lookups.
+ *
+ * Concurrent single-wallet misses for the same wallet share one load. The
+ * write paths in {@code WalletService} push their new state in after
+ * commit, and an entry is only replaced by a snapshot with an equal or
+ * higher {@code version} (bulk loads included), so a slow reader can never
+ * put back an older balance.
+ * Sharded wallets change balance without bumping {@code version}; their
+ * entries are dropped on every write instead.
+ *
+ * The cache is per instance. Writes made by other instances become
+ * visible when the entry expires ({@code wallet.cache.ttl}).
+ */
+@Component
+public class WalletCache {
+    
+    private final Cache<String, WalletSnapshot> wallets;
+    private final Cache<String, List<String>> userWalletIds;
+    
+    public WalletCache(
+            @Value("${wallet.cache.max-size:100000}") long maxSize,
+            @Value("${wallet.cache.ttl:30s}") Duration ttl) {
+        this.wallets = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .build();
+        this.userWalletIds = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+    
+    public WalletSnapshot get(String walletId, Function<String, WalletSnapshot> loader) {
+        return wallets.get(walletId, loader);
+    }
+    
+    public Map<String, WalletSnapshot> getAll(Collection<String> walletIds,
+            Function<Set<String>, Map<String, WalletSnapshot>> loader) {
+        Map<String, WalletSnapshot> result = new HashMap<>(wallets.getAllPresent(walletIds));
+        Set<String> missing = new HashSet<>(walletIds);
+        missing.removeAll(result.keySet());
+        if (!missing.isEmpty()) {
+            // Not Caffeine's bulk load, which would overwrite whatever a commit put in meanwhile
+            loader.apply(missing).forEach((walletId, loaded) -> result.put(walletId, put(loaded)));
+        }
+        return result;
+    }
+    
+    public List<String> getUserWalletIds(String userId, Function<String, List<String>> loader) {
+        return userWalletIds.get(userId, loader);
+    }
+    
+    /**
+     * Publishes the wallets' state to the cache once the current
+     * transaction commits (immediately if there is none). Nothing is
+     * published on rollback.
+     */
+    public void refreshAfterCommit(Collection<Wallet> changed) {
+        List<Wallet> copy = new ArrayList<>(changed);
+        afterCommit(() -> copy.forEach(this::refresh));
+    }
+    
+    // For writes that bypass the entity (the snapshot comes from RETURNING)
+    public void refreshAfterCommit(WalletSnapshot changed) {
+        afterCommit(() -> put(changed));
+    }
+    
+    // A new wallet also changes its owner's wallet list
+    public void walletCreatedAfterCommit(Wallet wallet) {
+        afterCommit(() -> {
+            refresh(wallet);
+            userWalletIds.invalidate(wallet.getUserId());
+        });
+    }
+    
+    public void invalidate(String walletId) {
+        wallets.invalidate(walletId);
+    }
+    
+    // Version is read after commit, when Hibernate has applied the flushed increment
+    private void refresh(Wallet wallet) {
+        if (wallet.isSharded()) {
+            wallets.invalidate(wallet.getId());
+            return;
+        }
+        put(WalletSnapshot.of(wallet));
+    }
+    
+    // Returns the entry that won: the given snapshot unless a newer one was already cached
+    private WalletSnapshot put(WalletSnapshot snapshot) {
+        return wallets.asMap().merge(snapshot.getId(), snapshot,
+            (current, fresh) -> fresh.getVersion() >= current.getVersion() ? fresh : current);
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.wallet.service.cache;
+
+import com.wallet.service.entity.Wallet;
+import com.wallet.service.money.MinorUnits;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Immutable copy of a wallet row as of a given {@code version}, safe to
+ * share between threads and to keep in {@link WalletCache}.
+ */
+public final class WalletSnapshot {
+    
+    private final String id;
+    private final String userId;
+    private final long balance;  // Minor units (1/10000)
+    private final long version;
+    private final boolean sharded;
+    private final Instant createdAt;
+    private final Instant updatedAt;
+    
+    public WalletSnapshot(String id, String userId, long balance, long version, boolean sharded,
+                           Instant createdAt, Instant updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.balance = balance;
+        this.version = version;
+        this.sharded = sharded;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    public static WalletSnapshot of(Wallet wallet) {
+        return new WalletSnapshot(
+            wallet.getId(),
+            wallet.getUserId(),
+            wallet.getBalanceMinor(),
+            wallet.getVersion(),
+            wallet.isSharded(),
+            wallet.getCreatedAt(),
+            wallet.getUpdatedAt()
+        );
+    }
+    
+    // Getters
+    public String getId() { return id; }
+    public String getUserId() { return userId; }
+    public BigDecimal getBalance() { return MinorUnits.toDecimal(balance); }
+    public long getBalanceMinor() { return balance; }
+    public long getVersion() { return version; }
+    public boolean isSharded() { return sharded; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+}
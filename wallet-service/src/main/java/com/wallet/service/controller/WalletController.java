@@ -1,13 +1,26 @@
 package com.wallet.service.controller;
 
+import com.wallet.service.cache.WalletSnapshot;
 import com.wallet.service.dto.*;
+import com.wallet.service.entity.PendingTransfer;
 import com.wallet.service.entity.Wallet;
+import com.wallet.service.metrics.WalletMetrics;
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.service.AsyncTransferService;
+import com.wallet.service.service.FundCommand;
+import com.wallet.service.service.IdempotencyService;
+import com.wallet.service.service.LedgerOutcome;
+import com.wallet.service.service.OptimisticLockRetrier;
+import com.wallet.service.service.TransferCommand;
+import com.wallet.service.service.WalletLaneExecutor;
 import com.wallet.service.service.WalletService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,16 +29,32 @@ import java.util.stream.Collectors;
 public class WalletController {
     
     private final WalletService walletService;
+    private final IdempotencyService idempotencyService;
+    private final OptimisticLockRetrier retrier;
+    private final AsyncTransferService asyncTransferService;
+    private final WalletMetrics metrics;
+    private final WalletLaneExecutor laneExecutor;  // null unless wallet.lanes.enabled
     
-    public WalletController(WalletService walletService) {
+    public WalletController(WalletService walletService,
+                            IdempotencyService idempotencyService,
+                            OptimisticLockRetrier retrier,
+                            AsyncTransferService asyncTransferService,
+                            WalletMetrics metrics,
+                            ObjectProvider<WalletLaneExecutor> laneExecutor) {
         this.walletService = walletService;
+        this.idempotencyService = idempotencyService;
+        this.retrier = retrier;
+        this.asyncTransferService = asyncTransferService;
+        this.metrics = metrics;
+        this.laneExecutor = laneExecutor.getIfAvailable();
     }
     
     @PostMapping("/wallets")
     public ResponseEntity<WalletResponse> createWallet(
             @Valid @RequestBody CreateWalletRequest request) {
         
-        Wallet wallet = walletService.createWallet(request.getUserId());
+        Wallet wallet = metrics.recordOperation("create",
+            () -> walletService.createWallet(request.getUserId()));
         WalletResponse response = toWalletResponse(wallet);
         
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -34,9 +63,29 @@ public class WalletController {
     @PostMapping("/wallets/{walletId}/fund")
     public ResponseEntity<WalletResponse> fundWallet(
             @PathVariable String walletId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody FundWalletRequest request) {
         
-        Wallet wallet = walletService.fundWallet(walletId, request.getAmount());
+        long amount = MinorUnits.fromDecimal(request.getAmount());
+        return metrics.recordOperation("fund", () -> fund(walletId, idempotencyKey, amount));
+    }
+    
+    private ResponseEntity<WalletResponse> fund(String walletId, String idempotencyKey, long amount) {
+        // Keyed requests bypass the lanes: the key must commit in the same transaction.
+        // A conflict rolls the key back with everything else, so the whole claim is retried.
+        if (idempotencyKey != null) {
+            return retrier.execute(walletId, () -> idempotencyService.execute(
+                idempotencyKey, "FUND", walletId + "|" + amount,
+                WalletResponse.class,
+                () -> ResponseEntity.ok(toWalletResponse(walletService.fundWallet(walletId, amount)))));
+        }
+        
+        if (laneExecutor != null) {
+            LedgerOutcome outcome = laneExecutor.execute(new FundCommand(walletId, amount));
+            return ResponseEntity.ok(toWalletResponse(outcome));
+        }
+        
+        WalletSnapshot wallet = retrier.execute(walletId, () -> walletService.fundWallet(walletId, amount));
         WalletResponse response = toWalletResponse(wallet);
         
         return ResponseEntity.ok(response);
@@ -45,30 +94,111 @@ public class WalletController {
     @PostMapping("/wallets/{walletId}/transfer")
     public ResponseEntity<TransferResponse> transfer(
             @PathVariable String walletId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody TransferRequest request) {
         
-        walletService.transferFunds(walletId, request.getToWalletId(), request.getAmount());
+        String toWalletId = request.getToWalletId();
+        long amount = MinorUnits.fromDecimal(request.getAmount());
+        return metrics.recordOperation("transfer",
+            () -> transfer(walletId, toWalletId, idempotencyKey, amount));
+    }
+    
+    private ResponseEntity<TransferResponse> transfer(String walletId, String toWalletId,
+                                                      String idempotencyKey, long amount) {
+        if (idempotencyKey != null) {
+            return retrier.execute(walletId, () -> idempotencyService.execute(
+                idempotencyKey, "TRANSFER",
+                walletId + "|" + toWalletId + "|" + amount,
+                TransferResponse.class,
+                () -> {
+                    walletService.transferFunds(walletId, toWalletId, amount);
+                    return ResponseEntity.ok(toTransferResponse(null, walletId, toWalletId));
+                }));
+        }
         
-        TransferResponse response = new TransferResponse(
-            null,  // We could track this if needed
-            walletId,
-            request.getToWalletId(),
-            "Transfer completed successfully"
-        );
+        String transactionId = null;  // We could track this if needed
+        if (laneExecutor != null) {
+            transactionId = laneExecutor.execute(new TransferCommand(walletId, toWalletId, amount))
+                .getTransactionId();
+        } else {
+            retrier.execute(walletId, () -> {
+                walletService.transferFunds(walletId, toWalletId, amount);
+                return null;
+            });
+        }
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(toTransferResponse(transactionId, walletId, toWalletId));
+    }
+    
+    @PostMapping("/wallets/{walletId}/shards")
+    public ResponseEntity<WalletResponse> enableSharding(
+            @PathVariable String walletId,
+            @Valid @RequestBody EnableShardingRequest request) {
+        
+        Wallet wallet = walletService.enableSharding(walletId, request.getShardCount());
+        return ResponseEntity.ok(toWalletResponse(wallet));
+    }
+    
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(
+            @Valid @RequestBody BatchTransferRequest request) {
+        
+        List<TransferCommand> commands = request.getTransfers().stream()
+            .map(item -> new TransferCommand(
+                item.getFromWalletId(), item.getToWalletId(), MinorUnits.fromDecimal(item.getAmount())))
+            .collect(Collectors.toList());
+        
+        List<LedgerOutcome> outcomes = metrics.recordOperation("batch",
+            () -> walletService.transferBatch(commands));
+        
+        List<BatchTransferResult> results = new ArrayList<>(outcomes.size());
+        int completed = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            LedgerOutcome outcome = outcomes.get(i);
+            TransferCommand command = commands.get(i);
+            if (outcome.isSuccess()) {
+                completed++;
+            }
+            results.add(new BatchTransferResult(
+                i,
+                outcome.getTransactionId(),
+                command.getFromWalletId(),
+                command.getToWalletId(),
+                outcome.isSuccess() ? "COMPLETED" : "FAILED",
+                outcome.isSuccess() ? "Transfer completed successfully" : outcome.getFailureReason()
+            ));
+        }
+        
+        return ResponseEntity.ok(
+            new BatchTransferResponse(completed, outcomes.size() - completed, results));
+    }
+    
+    @PostMapping("/transfers/async")
+    public ResponseEntity<TransferStatusResponse> submitTransfer(
+            @Valid @RequestBody AsyncTransferRequest request) {
+        
+        PendingTransfer transfer = asyncTransferService.submit(
+            request.getFromWalletId(), request.getToWalletId(), MinorUnits.fromDecimal(request.getAmount()));
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toTransferStatusResponse(transfer));
+    }
+    
+    @GetMapping("/transfers/{transferId}")
+    public ResponseEntity<TransferStatusResponse> getTransfer(@PathVariable String transferId) {
+        PendingTransfer transfer = asyncTransferService.getTransfer(transferId);
+        return ResponseEntity.ok(toTransferStatusResponse(transfer));
     }
     
     @GetMapping("/wallets/{walletId}")
     public ResponseEntity<WalletResponse> getWallet(@PathVariable String walletId) {
-        Wallet wallet = walletService.getWallet(walletId);
+        WalletSnapshot wallet = walletService.getWallet(walletId);
         WalletResponse response = toWalletResponse(wallet);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/users/{userId}/wallets")
     public ResponseEntity<List<WalletResponse>> getUserWallets(@PathVariable String userId) {
-        List<Wallet> wallets = walletService.getUserWallets(userId);
+        List<WalletSnapshot> wallets = walletService.getUserWallets(userId);
         List<WalletResponse> responses = wallets.stream()
             .map(this::toWalletResponse)
             .collect(Collectors.toList());
@@ -85,4 +215,50 @@ public class WalletController {
             wallet.getUpdatedAt()
         );
     }
+    
+    private TransferResponse toTransferResponse(String transactionId, String fromWalletId,
+                                                String toWalletId) {
+        return new TransferResponse(
+            transactionId,
+            fromWalletId,
+            toWalletId,
+            "Transfer completed successfully"
+        );
+    }
+    
+    private TransferStatusResponse toTransferStatusResponse(PendingTransfer transfer) {
+        return new TransferStatusResponse(
+            transfer.getId(),
+            transfer.getFromWalletId(),
+            transfer.getToWalletId(),
+            transfer.getAmount(),
+            transfer.getStatus().name(),
+            transfer.getTransactionId(),
+            transfer.getFailureReason(),
+            transfer.getCreatedAt(),
+            transfer.getCompletedAt()
+        );
+    }
+    
+    private WalletResponse toWalletResponse(WalletSnapshot wallet) {
+        return new WalletResponse(
+            wallet.getId(),
+            wallet.getUserId(),
+            wallet.getBalance(),
+            wallet.getCreatedAt(),
+            wallet.getUpdatedAt()
+        );
+    }
+    
+    // Lane results carry the balance as of that command, not the end of its group commit
+    private WalletResponse toWalletResponse(LedgerOutcome outcome) {
+        Wallet wallet = outcome.getWallet();
+        return new WalletResponse(
+            wallet.getId(),
+            wallet.getUserId(),
+            MinorUnits.toDecimal(outcome.getBalanceAfter()),
+            wallet.getCreatedAt(),
+            wallet.getUpdatedAt()
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.wallet.service.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+public class BatchTransferItem {
+    
+    @NotBlank(message = "From wallet ID is required")
+    private String fromWalletId;
+    
+    @NotBlank(message = "To wallet ID is required")
+    private String toWalletId;
+    
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be at least 0.01")
+    private BigDecimal amount;
+    
+    public BatchTransferItem() {}
+    
+    public BatchTransferItem(String fromWalletId, String toWalletId, BigDecimal amount) {
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.amount = amount;
+    }
+    
+    public String getFromWalletId() { return fromWalletId; }
+    public void setFromWalletId(String fromWalletId) { this.fromWalletId = fromWalletId; }
+    
+    public String getToWalletId() { return toWalletId; }
+    public void setToWalletId(String toWalletId) { this.toWalletId = toWalletId; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
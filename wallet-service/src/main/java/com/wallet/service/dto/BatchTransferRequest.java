@@ -0,0 +1,24 @@
+package com.wallet.service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class BatchTransferRequest {
+    
+    public static final int MAX_BATCH_SIZE = 1000;
+    
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = MAX_BATCH_SIZE, message = "At most 1000 transfers per batch")
+    private List<@Valid BatchTransferItem> transfers;
+    
+    public BatchTransferRequest() {}
+    
+    public BatchTransferRequest(List<BatchTransferItem> transfers) {
+        this.transfers = transfers;
+    }
+    
+    public List<BatchTransferItem> getTransfers() { return transfers; }
+    public void setTransfers(List<BatchTransferItem> transfers) { this.transfers = transfers; }
+}
@@ -0,0 +1,27 @@
+package com.wallet.service.dto;
+
+import java.util.List;
+
+public class BatchTransferResponse {
+    private int completed;
+    private int failed;
+    private List<BatchTransferResult> results;
+    
+    public BatchTransferResponse() {}
+    
+    public BatchTransferResponse(int completed, int failed, List<BatchTransferResult> results) {
+        this.completed = completed;
+        this.failed = failed;
+        this.results = results;
+    }
+    
+    // Getters and setters
+    public int getCompleted() { return completed; }
+    public void setCompleted(int completed) { this.completed = completed; }
+    
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    
+    public List<BatchTransferResult> getResults() { return results; }
+    public void setResults(List<BatchTransferResult> results) { this.results = results; }
+}
@@ -0,0 +1,41 @@
+package com.wallet.service.dto;
+
+public class BatchTransferResult {
+    private int index;
+    private String transactionId;
+    private String fromWalletId;
+    private String toWalletId;
+    private String status;
+    private String message;
+    
+    public BatchTransferResult() {}
+    
+    public BatchTransferResult(int index, String transactionId, String fromWalletId,
+                               String toWalletId, String status, String message) {
+        this.index = index;
+        this.transactionId = transactionId;
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.status = status;
+        this.message = message;
+    }
+    
+    // Getters and setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    
+    public String getFromWalletId() { return fromWalletId; }
+    public void setFromWalletId(String fromWalletId) { this.fromWalletId = fromWalletId; }
+    
+    public String getToWalletId() { return toWalletId; }
+    public void setToWalletId(String toWalletId) { this.toWalletId = toWalletId; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,20 @@
+package com.wallet.service.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+public class EnableShardingRequest {
+    
+    @Min(value = 2, message = "Shard count must be at least 2")
+    @Max(value = 256, message = "Shard count must be at most 256")
+    private int shardCount;
+    
+    public EnableShardingRequest() {}
+    
+    public EnableShardingRequest(int shardCount) {
+        this.shardCount = shardCount;
+    }
+    
+    public int getShardCount() { return shardCount; }
+    public void setShardCount(int shardCount) { this.shardCount = shardCount; }
+}
@@ -0,0 +1,60 @@
+package com.wallet.service.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class TransferStatusResponse {
+    private String transferId;
+    private String fromWalletId;
+    private String toWalletId;
+    private BigDecimal amount;
+    private String status;  // PENDING, COMPLETED or FAILED
+    private String transactionId;
+    private String failureReason;
+    private Instant createdAt;
+    private Instant completedAt;
+    
+    public TransferStatusResponse() {}
+    
+    public TransferStatusResponse(String transferId, String fromWalletId, String toWalletId,
+                                  BigDecimal amount, String status, String transactionId,
+                                  String failureReason, Instant createdAt, Instant completedAt) {
+        this.transferId = transferId;
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.amount = amount;
+        this.status = status;
+        this.transactionId = transactionId;
+        this.failureReason = failureReason;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+    }
+    
+    // Getters and setters
+    public String getTransferId() { return transferId; }
+    public void setTransferId(String transferId) { this.transferId = transferId; }
+    
+    public String getFromWalletId() { return fromWalletId; }
+    public void setFromWalletId(String fromWalletId) { this.fromWalletId = fromWalletId; }
+    
+    public String getToWalletId() { return toWalletId; }
+    public void setToWalletId(String toWalletId) { this.toWalletId = toWalletId; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+    
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,43 @@
+package com.wallet.service.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A client-supplied Idempotency-Key and the response it produced. The row
+ * is claimed and completed in the same transaction as the wallet change,
+ * so a key is either absent or paired with its committed response.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+    
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String key;
+    
+    @Column(nullable = false, length = 30)
+    private String operation;
+    
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(name = "response_status")
+    private Integer responseStatus;
+    
+    @Column(name = "response_body")
+    private String responseBody;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+    
+    protected IdempotencyRecord() {}
+    
+    // Getters
+    public String getKey() { return key; }
+    public String getOperation() { return operation; }
+    public String getRequestHash() { return requestHash; }
+    public Integer getResponseStatus() { return responseStatus; }
+    public String getResponseBody() { return responseBody; }
+    public Instant getCreatedAt() { return createdAt; }
+}
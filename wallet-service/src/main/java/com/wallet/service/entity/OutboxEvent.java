@@ -0,0 +1,48 @@
+package com.wallet.service.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An event waiting to be relayed to Kafka. Written in the same
+ * transaction as the wallet rows it describes, deleted by the relay once
+ * the broker has acknowledged it.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    
+    // One nextval per event: ids pooled per JVM would break the relay's per-wallet order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+    
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;  // Kafka key: the wallet id
+    
+    @Column(name = "event_type", nullable = false, length = 30)
+    private String eventType;
+    
+    @Column(nullable = false)
+    private byte[] payload;  // WalletEventCodec bytes, sent to Kafka as is
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+    
+    protected OutboxEvent() {}
+    
+    public OutboxEvent(String aggregateId, String eventType, byte[] payload) {
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getAggregateId() { return aggregateId; }
+    public String getEventType() { return eventType; }
+    public byte[] getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
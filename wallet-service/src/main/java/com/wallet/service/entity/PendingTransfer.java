@@ -0,0 +1,102 @@
+package com.wallet.service.entity;
+
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.money.MinorUnitsConverter;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A transfer accepted by {@code POST /api/transfers/async}, waiting for
+ * (or finished by) a pending-transfer worker. Rows are kept after
+ * completion so clients can poll the outcome.
+ */
+@Entity
+@Table(name = "pending_transfers")
+public class PendingTransfer {
+    
+    @Id
+    private String id;
+    
+    @Column(name = "from_wallet_id", nullable = false)
+    private String fromWalletId;
+    
+    @Column(name = "to_wallet_id", nullable = false)
+    private String toWalletId;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long amount;  // Minor units (1/10000)
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+    
+    @Column(name = "transaction_id")
+    private String transactionId;
+    
+    @Column(name = "failure_reason")
+    private String failureReason;
+    
+    // Executions that failed outside per-transfer validation (see AsyncTransferService)
+    @Column(nullable = false)
+    private int attempts = 0;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+    
+    @Column(name = "completed_at")
+    private Instant completedAt;
+    
+    protected PendingTransfer() {}
+    
+    public PendingTransfer(String id, String fromWalletId, String toWalletId, long amount) {
+        this.id = id;
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.amount = amount;
+        this.status = Status.PENDING;
+        this.createdAt = Instant.now();
+    }
+    
+    public void complete(String transactionId) {
+        this.status = Status.COMPLETED;
+        this.transactionId = transactionId;
+        this.completedAt = Instant.now();
+    }
+    
+    public void fail(String reason) {
+        this.status = Status.FAILED;
+        this.failureReason = reason;
+        this.completedAt = Instant.now();
+    }
+    
+    // Counts a failed execution; gives up once maxAttempts is reached
+    public void recordFailedAttempt(String reason, int maxAttempts) {
+        this.attempts++;
+        this.failureReason = reason;
+        if (this.attempts >= maxAttempts) {
+            this.status = Status.FAILED;
+            this.completedAt = Instant.now();
+        }
+    }
+    
+    // Getters
+    public String getId() { return id; }
+    public String getFromWalletId() { return fromWalletId; }
+    public String getToWalletId() { return toWalletId; }
+    public BigDecimal getAmount() { return MinorUnits.toDecimal(amount); }
+    public long getAmountMinor() { return amount; }
+    public Status getStatus() { return status; }
+    public String getTransactionId() { return transactionId; }
+    public String getFailureReason() { return failureReason; }
+    public int getAttempts() { return attempts; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getCompletedAt() { return completedAt; }
+    
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -1,5 +1,8 @@
 package com.wallet.service.entity;
 
+import com.wallet.service.exception.InsufficientBalanceException;
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.money.MinorUnitsConverter;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -15,7 +18,16 @@ public class Wallet {
     private String userId;
     
     @Column(nullable = false, precision = 19, scale = 4)
-    private BigDecimal balance = BigDecimal.ZERO;
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance = 0L;  // Minor units (1/10000)
+    
+    // 0 = balance lives in this row; N > 0 = balance is split across N wallet_balance_shards rows
+    @Column(name = "shard_count", nullable = false)
+    private int shardCount = 0;
+    
+    // Sum of the shard rows, filled in by the service for sharded wallets
+    @Transient
+    private Long shardTotal;
     
     @Version  // This enables optimistic locking!
     @Column(nullable = false)
@@ -34,36 +46,74 @@ public class Wallet {
     public Wallet(String id, String userId) {
         this.id = id;
         this.userId = userId;
-        this.balance = BigDecimal.ZERO;
+        this.balance = 0L;
         this.createdAt = Instant.now();
         this.updatedAt = Instant.now();
     }
     
-    // Business method: add funds
-    public void addFunds(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    // Business method: add funds (amount in minor units)
+    public void addFunds(long amount) {
+        requireUnsharded();
+        if (amount <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
-        this.balance = this.balance.add(amount);
+        this.balance = MinorUnits.add(this.balance, amount);
         this.updatedAt = Instant.now();
     }
     
-    // Business method: deduct funds
-    public void deduct(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public void addFunds(BigDecimal amount) {
+        addFunds(MinorUnits.fromDecimal(amount));
+    }
+    
+    // Business method: deduct funds (amount in minor units)
+    public void deduct(long amount) {
+        requireUnsharded();
+        if (amount <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
-        if (this.balance.compareTo(amount) < 0) {
-            throw new IllegalStateException("Insufficient balance");
+        if (this.balance < amount) {
+            throw new InsufficientBalanceException();
         }
-        this.balance = this.balance.subtract(amount);
+        this.balance = this.balance - amount;
         this.updatedAt = Instant.now();
     }
     
+    public void deduct(BigDecimal amount) {
+        deduct(MinorUnits.fromDecimal(amount));
+    }
+    
+    // Business method: hand the balance over to shard rows. Returns the
+    // balance to seed them with; this row keeps zero from now on.
+    public long enableSharding(int shardCount) {
+        requireUnsharded();
+        if (shardCount < 2) {
+            throw new IllegalArgumentException("Shard count must be at least 2");
+        }
+        long moved = this.balance;
+        this.balance = 0L;
+        this.shardCount = shardCount;
+        this.shardTotal = moved;
+        this.updatedAt = Instant.now();
+        return moved;
+    }
+    
+    public void setShardTotal(long shardTotal) {
+        this.shardTotal = shardTotal;
+    }
+    
+    private void requireUnsharded() {
+        if (isSharded()) {
+            throw new IllegalStateException("Wallet " + id + " is sharded; use its balance shards");
+        }
+    }
+    
     // Getters
     public String getId() { return id; }
     public String getUserId() { return userId; }
-    public BigDecimal getBalance() { return balance; }
+    public BigDecimal getBalance() { return MinorUnits.toDecimal(getBalanceMinor()); }
+    public long getBalanceMinor() { return isSharded() && shardTotal != null ? shardTotal : balance; }
+    public int getShardCount() { return shardCount; }
+    public boolean isSharded() { return shardCount > 0; }
     public Long getVersion() { return version; }
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
@@ -0,0 +1,63 @@
+package com.wallet.service.entity;
+
+import com.wallet.service.money.MinorUnitsConverter;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One slice of a sharded wallet's balance. The wallet's balance is the sum
+ * of its shards; credits land on a random shard so concurrent credits do
+ * not contend on a single row. Shard rows are only ever changed through
+ * the native statements in {@code WalletBalanceShardRepository}.
+ */
+@Entity
+@Table(name = "wallet_balance_shards")
+public class WalletBalanceShard {
+    
+    @EmbeddedId
+    private ShardId id;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance;  // Minor units (1/10000)
+    
+    protected WalletBalanceShard() {}
+    
+    // Getters
+    public ShardId getId() { return id; }
+    public long getBalance() { return balance; }
+    
+    @Embeddable
+    public static class ShardId implements Serializable {
+        
+        @Column(name = "wallet_id", nullable = false)
+        private String walletId;
+        
+        @Column(name = "shard_index", nullable = false)
+        private int shardIndex;
+        
+        protected ShardId() {}
+        
+        public ShardId(String walletId, int shardIndex) {
+            this.walletId = walletId;
+            this.shardIndex = shardIndex;
+        }
+        
+        public String getWalletId() { return walletId; }
+        public int getShardIndex() { return shardIndex; }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ShardId)) return false;
+            ShardId other = (ShardId) o;
+            return shardIndex == other.shardIndex && Objects.equals(walletId, other.walletId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(walletId, shardIndex);
+        }
+    }
+}
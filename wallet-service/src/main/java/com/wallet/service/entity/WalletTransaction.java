@@ -1,5 +1,7 @@
 package com.wallet.service.entity;
 
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.money.MinorUnitsConverter;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -15,7 +17,8 @@ public class WalletTransaction {
     private String walletId;
     
     @Column(nullable = false, precision = 19, scale = 4)
-    private BigDecimal amount;
+    @Convert(converter = MinorUnitsConverter.class)
+    private long amount;  // Minor units (1/10000)
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
@@ -33,7 +36,7 @@ public class WalletTransaction {
     
     protected WalletTransaction() {}
     
-    public WalletTransaction(String id, String walletId, BigDecimal amount, 
+    public WalletTransaction(String id, String walletId, long amount, 
                            TransactionType type, TransactionStatus status) {
         this.id = id;
         this.walletId = walletId;
@@ -44,7 +47,7 @@ public class WalletTransaction {
     }
     
     // For transfers
-    public WalletTransaction(String id, String walletId, BigDecimal amount, 
+    public WalletTransaction(String id, String walletId, long amount, 
                            TransactionType type, TransactionStatus status,
                            String referenceWalletId) {
         this(id, walletId, amount, type, status);
@@ -54,7 +57,8 @@ public class WalletTransaction {
     // Getters
     public String getId() { return id; }
     public String getWalletId() { return walletId; }
-    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getAmount() { return MinorUnits.toDecimal(amount); }
+    public long getAmountMinor() { return amount; }
     public TransactionType getType() { return type; }
     public TransactionStatus getStatus() { return status; }
     public String getReferenceWalletId() { return referenceWalletId; }
@@ -1,8 +0,0 @@
-package com.wallet.service.event;  
-
-public class WalletCreatedEvent extends WalletEvent {
-    @Override
-    public String getEventType() {
-        return "WALLET_CREATED";
-    }
-}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.wallet.service.exception;
+
+// Still an IllegalStateException, so it keeps mapping to 400
+public class InsufficientBalanceException extends IllegalStateException {
+    
+    public InsufficientBalanceException() {
+        super("Insufficient balance");
+    }
+}
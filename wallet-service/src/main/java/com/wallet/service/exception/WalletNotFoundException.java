@@ -0,0 +1,9 @@
+package com.wallet.service.exception;
+
+// Still an IllegalArgumentException, so it keeps mapping to 400
+public class WalletNotFoundException extends IllegalArgumentException {
+    
+    public WalletNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,117 @@
+package com.wallet.service.kafka;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, pipelined front end to the Kafka producer.
+ *
+ * Values are event payloads already encoded by {@code WalletEventCodec}
+ * (the outbox stores them that way), so they go out byte for byte.
+ *
+ * Sends never wait for the broker: records are handed to the producer,
+ * which lingers, compresses and batches them, with up to 5 requests in
+ * flight per broker (idempotence keeps per-partition order across
+ * retries). At most {@code max-pending} records may be unacknowledged at
+ * once; past that, {@link #send} blocks the caller until acks free up
+ * room, or fails after {@code max-block}. Transient broker errors are
+ * retried inside the producer until {@code delivery.timeout.ms}; only
+ * then does a send fail and its failure callback run.
+ */
+@Component
+public class EventPublisher implements MeterBinder {
+    
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String topic;
+    private final int maxPending;
+    private final Duration maxBlock;
+    private final Semaphore pending;
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    
+    public EventPublisher(
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            @Value("${wallet.kafka.topic}") String topic,
+            @Value("${wallet.kafka.publisher.max-pending:10000}") int maxPending,
+            @Value("${wallet.kafka.publisher.max-block:30s}") Duration maxBlock) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("wallet.kafka.publisher.max-pending must be at least 1");
+        }
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.maxPending = maxPending;
+        this.maxBlock = maxBlock;
+        this.pending = new Semaphore(maxPending);
+    }
+    
+    /**
+     * Queues an encoded event keyed by wallet id. The returned future completes
+     * on ack; if the producer gives up, {@code onFailure} runs (on the
+     * producer's I/O thread, so keep it short) and the future fails.
+     */
+    public CompletableFuture<SendResult<String, byte[]>> send(
+            String key, byte[] payload, Consumer<Throwable> onFailure) {
+        acquire();
+        CompletableFuture<SendResult<String, byte[]>> future;
+        try {
+            future = kafkaTemplate.send(topic, key, payload);
+        } catch (RuntimeException e) {
+            pending.release();
+            throw e;
+        }
+        return future.whenComplete((result, ex) -> {
+            pending.release();
+            if (ex != null) {
+                failed.increment();
+                onFailure.accept(ex);
+            }
+        });
+    }
+    
+    // Push lingering records out now, e.g. once a whole batch has been queued
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+    
+    private void acquire() {
+        if (pending.tryAcquire()) {
+            return;
+        }
+        blocked.increment();
+        try {
+            if (!pending.tryAcquire(maxBlock.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Publisher buffer full: " + maxPending
+                    + " events unacknowledged for " + maxBlock.toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for publisher buffer space", e);
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("wallet.kafka.pending", pending, p -> maxPending - p.availablePermits())
+            .description("Events handed to the producer and not yet acknowledged")
+            .register(registry);
+        FunctionCounter.builder("wallet.kafka.blocked", blocked, LongAdder::sum)
+            .description("Sends that had to wait for publisher buffer space")
+            .register(registry);
+        FunctionCounter.builder("wallet.kafka.failed", failed, LongAdder::sum)
+            .description("Sends the producer gave up on after exhausting its retries")
+            .register(registry);
+    }
+}
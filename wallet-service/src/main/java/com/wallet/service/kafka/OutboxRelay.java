@@ -0,0 +1,163 @@
+package com.wallet.service.kafka;
+
+import com.wallet.service.entity.OutboxEvent;
+import com.wallet.service.metrics.WalletMetrics;
+import com.wallet.service.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ships committed outbox rows to Kafka.
+ *
+ * Each round claims the oldest batch of rows in id order and pushes their payloads (encoded with {@code WalletEventCodec} when the
+ * row was written) through the {@link EventPublisher} without waiting in
+ * between, so the producer can linger and compress them into a few
+ * pipelined requests, waits for every ack, then deletes the rows in the
+ * same transaction. If any send fails the transaction rolls back and the
+ * whole batch is retried; the history consumer is idempotent, so a
+ * resend is harmless. Consecutive failed rounds back off exponentially
+ * (up to {@code max-backoff}) instead of hammering a broker that is down.
+ *
+ * Ordering: an unsharded wallet's events reach Kafka in the order their
+ * transactions committed. Outbox ids come straight from the sequence when
+ * the event is written, which is after the transaction has locked the
+ * wallet or seen its last committed version, so that wallet's ids increase
+ * in commit order. Only one relay runs at a time across all instances (the
+ * holder of a transaction-scoped advisory lock; the others skip the
+ * round), and it sends in id order on an idempotent producer keyed by
+ * wallet id. Sharded wallets are the exception: their credits and debits
+ * touch only a shard row, never the wallet row, so two concurrent ones
+ * can take ids in one order and commit in the other. Their events are
+ * still all delivered, but not necessarily in commit order; locking the
+ * wallet to order them would bring back the contention sharding removes.
+ * Events of different wallets carry no ordering guarantee.
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    // Arbitrary, but fixed: pg_try_advisory_xact_lock key shared by all instances
+    private static final long RELAY_LOCK_KEY = 0x6f75_7462_6f78_7265L;
+    
+    private final OutboxEventRepository outboxRepository;
+    private final EventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long pollIntervalMs;
+    private final long maxBackoffMs;
+    private final WalletMetrics metrics;
+    
+    // Only touched by the scheduler thread
+    private int consecutiveFailures;
+    private long retryAtNanos;
+    
+    public OutboxRelay(
+            OutboxEventRepository outboxRepository,
+            EventPublisher publisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${wallet.outbox.batch-size:500}") int batchSize,
+            @Value("${wallet.outbox.send-timeout-ms:35000}") long sendTimeoutMs,
+            @Value("${wallet.outbox.poll-interval-ms:100}") long pollIntervalMs,
+            @Value("${wallet.outbox.max-backoff:30s}") Duration maxBackoff,
+            WalletMetrics metrics) {
+        this.outboxRepository = outboxRepository;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxBackoffMs = maxBackoff.toMillis();
+        this.metrics = metrics;
+    }
+    
+    @Scheduled(fixedDelayString = "${wallet.outbox.poll-interval-ms:100}")
+    public void relay() {
+        if (consecutiveFailures > 0 && System.nanoTime() - retryAtNanos < 0) {
+            return;
+        }
+        try {
+            // Keep going while batches come back full, so a backlog drains without waiting
+            while (relayBatch() == batchSize) {
+                // next batch
+            }
+            consecutiveFailures = 0;
+        } catch (RuntimeException e) {
+            long backoffMs = backoffMs(++consecutiveFailures);
+            retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+            log.error("Outbox relay failed ({} in a row), retrying in {}ms", consecutiveFailures, backoffMs, e);
+        }
+    }
+    
+    private long backoffMs(int failures) {
+        return Math.min(maxBackoffMs, pollIntervalMs << Math.min(failures, 20));
+    }
+    
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            if (!outboxRepository.tryLockRelay(RELAY_LOCK_KEY)) {
+                log.debug("Outbox relay running on another instance");
+                return 0;
+            }
+            List<OutboxEvent> batch = outboxRepository.claimBatch(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            
+            List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+            for (OutboxEvent row : batch) {
+                sends.add(timed(row, publisher.send(row.getAggregateId(), row.getPayload(),
+                    ex -> log.warn("Kafka gave up on outbox event {} ({}): {}",
+                        row.getId(), row.getEventType(), ex.getMessage()))));
+            }
+            publisher.flush();
+            
+            awaitAcks(sends);
+            
+            outboxRepository.deleteAllInBatch(batch);
+            log.info("Relayed {} outbox events", batch.size());
+            return batch.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+    
+    // Send-to-ack latency per record, and how long the event waited in the outbox
+    private <T> CompletableFuture<T> timed(OutboxEvent row, CompletableFuture<T> send) {
+        long sentAt = System.nanoTime();
+        return send.whenComplete((result, ex) -> {
+            String outcome = ex == null ? WalletMetrics.SUCCESS : WalletMetrics.FAILURE;
+            metrics.timer("wallet.kafka.send", row.getEventType(), outcome)
+                .record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+            if (ex == null) {
+                metrics.timer("wallet.outbox.lag", row.getEventType(), outcome)
+                    .record(Duration.between(row.getCreatedAt(), Instant.now()));
+            }
+        });
+    }
+    
+    private void awaitAcks(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acks", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+    }
+}
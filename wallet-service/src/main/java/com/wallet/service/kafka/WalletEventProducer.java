@@ -1,45 +1,40 @@
 package com.wallet.service.kafka;
 
-import com.wallet.service.event.WalletEvent;
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletEventCodec;
+import com.wallet.service.entity.OutboxEvent;
+import com.wallet.service.repository.OutboxEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.concurrent.CompletableFuture;
-
+/**
+ * Publishes wallet events through the transactional outbox.
+ *
+ * The event is encoded with {@link WalletEventCodec} and written to
+ * {@code outbox_events} inside the caller's
+ * transaction, so it commits or rolls back together with the wallet
+ * rows. {@link OutboxRelay} ships committed events to Kafka in batches;
+ * request latency no longer depends on the broker.
+ */
 @Component
 public class WalletEventProducer {
     
     private static final Logger log = LoggerFactory.getLogger(WalletEventProducer.class);
     
-    private final KafkaTemplate<String, WalletEvent> kafkaTemplate;
-    private final String topic;
+    private final OutboxEventRepository outboxRepository;
     
-    public WalletEventProducer(
-            KafkaTemplate<String, WalletEvent> kafkaTemplate,
-            @Value("${wallet.kafka.topic}") String topic) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.topic = topic;
+    public WalletEventProducer(OutboxEventRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
     }
     
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishEvent(WalletEvent event) {
         log.info("Publishing event: {} for wallet: {}", event.getEventType(), event.getWalletId());
         
-        CompletableFuture<SendResult<String, WalletEvent>> future = 
-            kafkaTemplate.send(topic, event.getWalletId(), event);
-        
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                log.info("Event published successfully: {} to partition: {}", 
-                    event.getEventType(), 
-                    result.getRecordMetadata().partition());
-            } else {
-                log.error("Failed to publish event: {}", event.getEventType(), ex);
-                // In production: retry, dead letter queue, alert
-            }
-        });
+        outboxRepository.save(new OutboxEvent(
+            event.getWalletId(), event.getEventType(), WalletEventCodec.encode(event)));
     }
-}
\ No newline at end of file
+}
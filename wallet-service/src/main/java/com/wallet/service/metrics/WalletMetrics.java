@@ -0,0 +1,133 @@
+package com.wallet.service.metrics;
+
+import com.wallet.service.exception.InsufficientBalanceException;
+import com.wallet.service.exception.WalletNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for the wallet write paths, published through
+ * actuator ({@code /actuator/metrics}, {@code /actuator/prometheus}).
+ *
+ * {@code wallet.operation} covers a whole request (retries and commit
+ * included) and is split into stages: {@code wallet.lock.wait} (row-lock
+ * acquisition), {@code wallet.statement} (single-statement engines),
+ * {@code wallet.flush} and {@code wallet.commit}. Every timer is tagged
+ * with {@code operation} and {@code outcome}. Kafka latency is recorded
+ * by the outbox relay as {@code wallet.kafka.send}.
+ */
+@Component
+public class WalletMetrics {
+    
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    
+    private final MeterRegistry registry;
+    
+    public WalletMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    /**
+     * Times a complete operation, tagging it with how it ended; failures
+     * also bump {@code wallet.failures} with the same reason.
+     */
+    public <T> T recordOperation(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = SUCCESS;
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = classify(e);
+            failureCounter(operation, outcome).increment();
+            throw e;
+        } finally {
+            sample.stop(timer("wallet.operation", operation, outcome));
+        }
+    }
+    
+    public <T> T recordStage(String stage, String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = FAILURE;
+        try {
+            T result = action.get();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            sample.stop(timer(stage, operation, outcome));
+        }
+    }
+    
+    public void recordStage(String stage, String operation, Runnable action) {
+        recordStage(stage, operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Times the commit (or rollback) of the current transaction as
+     * {@code wallet.commit}; outcome is {@code committed} or
+     * {@code rolled_back}. A no-op outside a transaction.
+     */
+    public void recordCommit(String operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Timer.Sample sample;
+            
+            @Override
+            public void beforeCompletion() {
+                sample = Timer.start(registry);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (sample != null) {
+                    sample.stop(timer("wallet.commit", operation,
+                        status == STATUS_COMMITTED ? "committed" : "rolled_back"));
+                }
+            }
+        });
+    }
+    
+    public Timer timer(String name, String operation, String outcome) {
+        return Timer.builder(name)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+    
+    private Counter failureCounter(String operation, String reason) {
+        return Counter.builder("wallet.failures")
+            .description("Failed wallet operations by reason")
+            .tag("operation", operation)
+            .tag("reason", reason)
+            .register(registry);
+    }
+    
+    private static String classify(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException) {
+            return "insufficient_balance";
+        }
+        if (e instanceof WalletNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof ObjectOptimisticLockingFailureException) {
+            return "optimistic_conflict";
+        }
+        if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            return "rejected";
+        }
+        return "error";
+    }
+}
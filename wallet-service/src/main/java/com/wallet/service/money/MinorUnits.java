@@ -0,0 +1,59 @@
+package com.wallet.service.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money as a primitive {@code long} of minor units.
+ *
+ * One minor unit is 1/10,000 of the currency unit, which is exactly the
+ * {@code DECIMAL(19,4)} scale of the money columns, so no fraction is ever
+ * lost. The range is narrower, though: a {@code long} tops out at
+ * 922,337,203,685,477.5807 while the columns allow up to
+ * 999,999,999,999,999.9999. Values beyond {@link #MAX} cannot be loaded
+ * and are rejected by {@link #fromDecimal}. The ledger works on {@code long}s
+ * throughout; {@link BigDecimal} only appears at the edges (REST DTOs and
+ * JDBC).
+ */
+public final class MinorUnits {
+    
+    public static final int SCALE = 4;
+    
+    // Largest representable magnitude: Long.MAX_VALUE minor units
+    public static final BigDecimal MAX = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+    
+    private MinorUnits() {}
+    
+    /**
+     * Converts a decimal amount to minor units. Rejects amounts with more
+     * than {@link #SCALE} decimal places instead of rounding them, and
+     * amounts beyond {@link #MAX} in magnitude.
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + SCALE
+                + " decimal places and be within " + MAX.toPlainString() + " in magnitude: " + amount, e);
+        }
+    }
+    
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+    
+    public static long add(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Balance overflow", e);
+        }
+    }
+    
+    public static long subtract(long a, long b) {
+        try {
+            return Math.subtractExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Balance overflow", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.wallet.service.repository;
+
+import com.wallet.service.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    // Claim a key. Returns 0 if it exists; a concurrent claimer blocks here until the first commits
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, operation, request_hash, created_at) " +
+                   "VALUES (:key, :operation, :requestHash, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (idempotency_key) DO NOTHING",
+           nativeQuery = true)
+    int claim(String key, String operation, String requestHash);
+    
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET response_status = :status, response_body = :body " +
+                   "WHERE idempotency_key = :key",
+           nativeQuery = true)
+    int complete(String key, int status, String body);
+    
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE created_at < :cutoff", nativeQuery = true)
+    int deleteOlderThan(Instant cutoff);
+}
@@ -0,0 +1,21 @@
+package com.wallet.service.repository;
+
+import com.wallet.service.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Only one relay may claim at a time (see OutboxRelay); holds until the transaction ends
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLockRelay(long key);
+    
+    // The oldest pending events, in the order they have to be published
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id LIMIT :limit",
+           nativeQuery = true)
+    List<OutboxEvent> claimBatch(int limit);
+}
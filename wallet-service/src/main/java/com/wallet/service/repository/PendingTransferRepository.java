@@ -0,0 +1,25 @@
+package com.wallet.service.repository;
+
+import com.wallet.service.entity.PendingTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PendingTransferRepository extends JpaRepository<PendingTransfer, String> {
+    
+    // Claim the oldest queued transfers; SKIP LOCKED lets workers take disjoint batches
+    @Query(value = "SELECT * FROM pending_transfers WHERE status = 'PENDING' " +
+                   "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<PendingTransfer> claimBatch(int limit);
+    
+    // Claim one transfer if it is still queued and no other worker holds it
+    @Query(value = "SELECT * FROM pending_transfers WHERE id = :id AND status = 'PENDING' " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<PendingTransfer> claim(String id);
+}
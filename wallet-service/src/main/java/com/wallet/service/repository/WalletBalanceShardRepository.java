@@ -0,0 +1,59 @@
+package com.wallet.service.repository;
+
+import com.wallet.service.entity.WalletBalanceShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface WalletBalanceShardRepository
+        extends JpaRepository<WalletBalanceShard, WalletBalanceShard.ShardId> {
+    
+    // Create shards 0..shardCount-1, seeding shard 0 with the wallet's balance
+    @Modifying
+    @Query(value = "INSERT INTO wallet_balance_shards (wallet_id, shard_index, balance) " +
+                   "SELECT :walletId, i, CASE WHEN i = 0 THEN :balance ELSE 0 END " +
+                   "FROM generate_series(0, :shardCount - 1) AS i",
+           nativeQuery = true)
+    int createShards(String walletId, int shardCount, BigDecimal balance);
+    
+    // Credit one shard; only that shard's row is locked
+    @Modifying
+    @Query(value = "UPDATE wallet_balance_shards SET balance = balance + :amount " +
+                   "WHERE wallet_id = :walletId AND shard_index = :shardIndex",
+           nativeQuery = true)
+    int credit(String walletId, int shardIndex, BigDecimal amount);
+    
+    // Debit any unlocked shard that covers the amount, scanning from a random start
+    @Modifying
+    @Query(value = "UPDATE wallet_balance_shards SET balance = balance - :amount " +
+                   "WHERE wallet_id = :walletId AND balance >= :amount AND shard_index = (" +
+                   "  SELECT shard_index FROM wallet_balance_shards " +
+                   "  WHERE wallet_id = :walletId AND balance >= :amount " +
+                   "  ORDER BY (shard_index + :startIndex) % :shardCount " +
+                   "  LIMIT 1 FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int debitAnyShard(String walletId, int shardCount, int startIndex, BigDecimal amount);
+    
+    // Lock every shard (in index order, to avoid deadlocks) and return their sum
+    @Query(value = "SELECT COALESCE(SUM(balance), 0) FROM (" +
+                   "  SELECT balance FROM wallet_balance_shards WHERE wallet_id = :walletId " +
+                   "  ORDER BY shard_index FOR UPDATE) AS locked",
+           nativeQuery = true)
+    BigDecimal lockAndSum(String walletId);
+    
+    // Sweep: move everything into shard 0 and leave the rest empty
+    @Modifying
+    @Query(value = "UPDATE wallet_balance_shards " +
+                   "SET balance = CASE WHEN shard_index = 0 THEN :remaining ELSE 0 END " +
+                   "WHERE wallet_id = :walletId",
+           nativeQuery = true)
+    int consolidate(String walletId, BigDecimal remaining);
+    
+    @Query(value = "SELECT COALESCE(SUM(balance), 0) FROM wallet_balance_shards WHERE wallet_id = :walletId",
+           nativeQuery = true)
+    BigDecimal totalBalance(String walletId);
+}
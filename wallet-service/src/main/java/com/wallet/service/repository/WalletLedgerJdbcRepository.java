@@ -0,0 +1,127 @@
+package com.wallet.service.repository;
+
+import com.wallet.service.cache.WalletSnapshot;
+import com.wallet.service.money.MinorUnits;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ledger writes done as single SQL statements, bypassing the persistence
+ * context. Runs on the caller's transaction (JpaTransactionManager shares
+ * its connection with JdbcTemplate); the {@code Wallet} entities of any
+ * wallet touched here must not be loaded in the same transaction.
+ */
+@Repository
+public class WalletLedgerJdbcRepository {
+    
+    // Largest balance the long minor-unit model can hold
+    private static final BigDecimal MAX_BALANCE = MinorUnits.toDecimal(Long.MAX_VALUE);
+    
+    // Credit and ledger row in one statement. Sharded wallets, missing
+    // wallets and credits that would overflow match no row.
+    private static final String CREDIT_SQL =
+        "WITH credited AS ( " +
+        "  UPDATE wallets SET balance = balance + ?, version = version + 1, updated_at = ? " +
+        "  WHERE id = ? AND shard_count = 0 AND balance <= ? - ? " +
+        "  RETURNING id, user_id, balance, version, created_at, updated_at " +
+        "), ledger AS ( " +
+        "  INSERT INTO wallet_transactions (id, wallet_id, amount, type, status, created_at) " +
+        "  SELECT ?, id, ?, 'FUND', 'COMPLETED', ? FROM credited " +
+        ") " +
+        "SELECT id, user_id, balance, version, created_at, updated_at FROM credited";
+    
+    // The whole transfer in one statement: lock both rows in id order, debit,
+    // credit, and insert both ledger rows. The debit only matches when the
+    // payer covers the amount and both wallets are unsharded and the payee
+    // cannot overflow; the credit only runs if the debit did. Rows come
+    // back payer first.
+    private static final String TRANSFER_SQL =
+        "WITH locked AS ( " +
+        "  SELECT id, balance, shard_count FROM wallets WHERE id IN (?, ?) ORDER BY id FOR UPDATE " +
+        "), debited AS ( " +
+        "  UPDATE wallets w SET balance = w.balance - ?, version = w.version + 1, updated_at = ? " +
+        "  WHERE w.id = ? AND w.shard_count = 0 AND w.balance >= ? " +
+        "    AND EXISTS (SELECT 1 FROM locked l WHERE l.id = w.id) " +
+        "    AND EXISTS (SELECT 1 FROM locked l " +
+        "                WHERE l.id = ? AND l.shard_count = 0 AND l.balance <= ? - ?) " +
+        "  RETURNING w.id, w.user_id, w.balance, w.version, w.created_at, w.updated_at " +
+        "), credited AS ( " +
+        "  UPDATE wallets w SET balance = w.balance + ?, version = w.version + 1, updated_at = ? " +
+        "  FROM debited " +
+        "  WHERE w.id = ? " +
+        "  RETURNING w.id, w.user_id, w.balance, w.version, w.created_at, w.updated_at " +
+        "), ledger AS ( " +
+        "  INSERT INTO wallet_transactions " +
+        "    (id, wallet_id, amount, type, status, reference_wallet_id, created_at) " +
+        "  SELECT ?, id, ?, 'TRANSFER_OUT', 'COMPLETED', ?, ? FROM debited " +
+        "  UNION ALL " +
+        "  SELECT ?, id, ?, 'TRANSFER_IN', 'COMPLETED', ?, ? FROM credited " +
+        ") " +
+        "SELECT 0 AS side, id, user_id, balance, version, created_at, updated_at FROM debited " +
+        "UNION ALL " +
+        "SELECT 1 AS side, id, user_id, balance, version, created_at, updated_at FROM credited " +
+        "ORDER BY side";
+    
+    private static final RowMapper<WalletSnapshot> WALLET_ROW = (rs, rowNum) -> new WalletSnapshot(
+        rs.getString("id"),
+        rs.getString("user_id"),
+        MinorUnits.fromDecimal(rs.getBigDecimal("balance")),
+        rs.getLong("version"),
+        false,
+        rs.getTimestamp("created_at").toInstant(),
+        rs.getTimestamp("updated_at").toInstant()
+    );
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public WalletLedgerJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Credits an unsharded wallet and records its FUND transaction in one
+     * round trip. The row lock is held only for the statement itself, and
+     * since nothing was read beforehand there is no version to conflict on.
+     * Empty if no unsharded wallet with that id could take the credit.
+     */
+    public Optional<WalletSnapshot> credit(String walletId, long amount, String transactionId) {
+        BigDecimal decimalAmount = MinorUnits.toDecimal(amount);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<WalletSnapshot> rows = jdbcTemplate.query(CREDIT_SQL, WALLET_ROW,
+            decimalAmount, now, walletId, MAX_BALANCE, decimalAmount,
+            transactionId, decimalAmount, now);
+        return rows.stream().findFirst();
+    }
+    
+    /**
+     * Moves {@code amount} between two unsharded wallets in one round trip
+     * and returns both wallets' new state, payer first. Empty if nothing
+     * was applied: a wallet is missing or sharded, the payer cannot cover
+     * the amount, or the payee would overflow.
+     */
+    public List<WalletSnapshot> transfer(String fromWalletId, String toWalletId, long amount,
+                                         String outTransactionId, String inTransactionId) {
+        BigDecimal decimalAmount = MinorUnits.toDecimal(amount);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<WalletSnapshot> rows = jdbcTemplate.query(TRANSFER_SQL, WALLET_ROW,
+            fromWalletId, toWalletId,
+            decimalAmount, now, fromWalletId, decimalAmount,
+            toWalletId, MAX_BALANCE, decimalAmount,
+            decimalAmount, now, toWalletId,
+            outTransactionId, decimalAmount, toWalletId, now,
+            inTransactionId, decimalAmount, fromWalletId, now);
+        if (rows.size() == 1) {
+            // Cannot happen while both rows are locked; refuse to commit half a transfer
+            throw new IllegalStateException(
+                "Transfer " + fromWalletId + " -> " + toWalletId + " was only partially applied");
+        }
+        return rows;
+    }
+}
@@ -16,8 +16,16 @@ public interface WalletRepository extends JpaRepository<Wallet, String> {
     // Find all wallets for a user
     List<Wallet> findByUserId(String userId);
     
+    @Query("SELECT w.id FROM Wallet w WHERE w.userId = :userId ORDER BY w.createdAt")
+    List<String> findIdsByUserId(String userId);
+    
     // Pessimistic locking for transfers (prevent deadlocks)
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
     List<Wallet> findByIdInOrderById(List<String> ids);
+    
+    // Same, but skips sharded wallets (their row is never written by balance changes)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids AND w.shardCount = 0 ORDER BY w.id")
+    List<Wallet> findUnshardedByIdInOrderById(List<String> ids);
 }
\ No newline at end of file
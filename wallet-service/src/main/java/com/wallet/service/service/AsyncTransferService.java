@@ -0,0 +1,196 @@
+package com.wallet.service.service;
+
+import com.wallet.service.entity.PendingTransfer;
+import com.wallet.common.id.IdGenerator;
+import com.wallet.service.repository.PendingTransferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accept-now, execute-later transfers.
+ *
+ * {@link #submit} only inserts a {@code pending_transfers} row, so the
+ * caller gets an id back without touching any wallet row. A pool of
+ * worker threads claims queued rows in batches with
+ * {@code FOR UPDATE SKIP LOCKED} and runs each batch through
+ * {@link WalletService#applyBatch}: one lock round trip and one commit
+ * per batch, with the same per-transfer validation as a synchronous
+ * transfer. The outcome is written back to the row in the same
+ * transaction.
+ *
+ * If the batch fails as a whole (a database error rather than a rejected
+ * transfer) it rolls back, and its transfers are retried one at a time so
+ * a single bad row cannot hold back the rest of the queue. A transfer that
+ * fails on its own counts an attempt and is marked FAILED after
+ * {@code max-attempts}.
+ */
+@Service
+public class AsyncTransferService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AsyncTransferService.class);
+    
+    private final PendingTransferRepository pendingRepository;
+    private final WalletService walletService;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGenerator idGenerator;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final Thread[] workers;
+    
+    public AsyncTransferService(
+            PendingTransferRepository pendingRepository,
+            WalletService walletService,
+            TransactionTemplate transactionTemplate,
+            IdGenerator idGenerator,
+            @Value("${wallet.async-transfers.workers:4}") int workerCount,
+            @Value("${wallet.async-transfers.batch-size:200}") int batchSize,
+            @Value("${wallet.async-transfers.poll-interval-ms:100}") long pollIntervalMs,
+            @Value("${wallet.async-transfers.max-attempts:5}") int maxAttempts) {
+        this.pendingRepository = pendingRepository;
+        this.walletService = walletService;
+        this.transactionTemplate = transactionTemplate;
+        this.idGenerator = idGenerator;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::work, "pending-transfers-" + i);
+            workers[i].setDaemon(true);
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        log.info("Started {} pending-transfer workers (batch size: {})", workers.length, batchSize);
+    }
+    
+    @PreDestroy
+    void stop() {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+    
+    public PendingTransfer submit(String fromWalletId, String toWalletId, long amount) {
+        if (fromWalletId.equals(toWalletId)) {
+            throw new IllegalArgumentException("Cannot transfer to the same wallet");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        PendingTransfer transfer = new PendingTransfer(idGenerator.newId(), fromWalletId, toWalletId, amount);
+        pendingRepository.save(transfer);
+        log.info("Transfer queued: {} ({} -> {})", transfer.getId(), fromWalletId, toWalletId);
+        return transfer;
+    }
+    
+    public PendingTransfer getTransfer(String transferId) {
+        return pendingRepository.findById(transferId)
+            .orElseThrow(() -> new IllegalArgumentException("Transfer not found: " + transferId));
+    }
+    
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            int processed;
+            try {
+                processed = processBatch();
+            } catch (RuntimeException e) {
+                log.error("Pending-transfer batch failed, will retry", e);
+                processed = 0;
+            }
+            // Go straight on while batches come back full, so a backlog drains without waiting
+            if (processed < batchSize) {
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        log.info("Pending-transfer worker {} stopped", Thread.currentThread().getName());
+    }
+    
+    int processBatch() {
+        List<String> claimed = new ArrayList<>();
+        Integer processed;
+        try {
+            processed = transactionTemplate.execute(status -> {
+                List<PendingTransfer> batch = pendingRepository.claimBatch(batchSize);
+                batch.forEach(transfer -> claimed.add(transfer.getId()));
+                execute(batch);
+                return batch.size();
+            });
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;  // Failed before claiming anything; nothing to isolate
+            }
+            log.warn("Pending-transfer batch of {} failed, retrying one by one", claimed.size(), e);
+            claimed.forEach(this::processOne);
+            return claimed.size();
+        }
+        if (processed != null && processed > 0) {
+            log.debug("Processed {} pending transfers", processed);
+        }
+        return processed == null ? 0 : processed;
+    }
+    
+    // Runs a single transfer in its own transaction, counting an attempt if it fails
+    void processOne(String transferId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                pendingRepository.claim(transferId).ifPresent(transfer -> execute(List.of(transfer))));
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                pendingRepository.claim(transferId).ifPresent(transfer -> {
+                    transfer.recordFailedAttempt(failureReason(e), maxAttempts);
+                    if (transfer.getStatus() == PendingTransfer.Status.FAILED) {
+                        log.error("Pending transfer {} failed after {} attempts", transferId, transfer.getAttempts(), e);
+                    } else {
+                        log.warn("Pending transfer {} failed (attempt {} of {})",
+                            transferId, transfer.getAttempts(), maxAttempts, e);
+                    }
+                }));
+        }
+    }
+    
+    // Applies the claimed transfers and records each outcome on its row
+    private void execute(List<PendingTransfer> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<TransferCommand> commands = new ArrayList<>(batch.size());
+        for (PendingTransfer transfer : batch) {
+            commands.add(new TransferCommand(
+                transfer.getFromWalletId(), transfer.getToWalletId(), transfer.getAmountMinor()));
+        }
+        
+        List<LedgerOutcome> outcomes = walletService.applyBatch(commands);
+        for (int i = 0; i < batch.size(); i++) {
+            LedgerOutcome outcome = outcomes.get(i);
+            if (outcome.isSuccess()) {
+                batch.get(i).complete(outcome.getTransactionId());
+            } else {
+                batch.get(i).fail(outcome.getFailureReason());
+            }
+        }
+    }
+    
+    // failure_reason is VARCHAR(255)
+    private static String failureReason(RuntimeException e) {
+        String reason = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return reason.length() > 255 ? reason.substring(0, 255) : reason;
+    }
+}
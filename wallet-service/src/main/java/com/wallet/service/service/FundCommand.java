@@ -0,0 +1,28 @@
+package com.wallet.service.service;
+
+import java.util.Collection;
+
+/**
+ * Credit {@code amount} to {@code walletId}.
+ */
+public class FundCommand extends LedgerCommand {
+    
+    private final String walletId;
+    
+    public FundCommand(String walletId, long amount) {
+        super(amount);
+        this.walletId = walletId;
+    }
+    
+    public String getWalletId() { return walletId; }
+    
+    @Override
+    public String getRoutingWalletId() {
+        return walletId;
+    }
+    
+    @Override
+    public void collectWalletIds(Collection<String> walletIds) {
+        walletIds.add(walletId);
+    }
+}
@@ -0,0 +1,157 @@
+package com.wallet.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.service.entity.IdempotencyRecord;
+import com.wallet.service.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Exactly-once execution of fund and transfer requests keyed by the
+ * client's {@code Idempotency-Key} header.
+ *
+ * The key is claimed with {@code INSERT ... ON CONFLICT DO NOTHING} and
+ * completed with the serialized response inside the same transaction as
+ * the wallet change, so retries can never double-apply. A bounded,
+ * TTL-evicting cache of recent responses sits in front of the table:
+ * a replay of a recent key is answered from memory without touching the
+ * database. A failed request rolls back its claim, so the client may
+ * retry it with the same key.
+ */
+@Service
+public class IdempotencyService {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAY_HEADER = "Idempotent-Replay";
+    private static final int MAX_KEY_LENGTH = 100;
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, StoredResponse> recentResponses;
+    private final Duration retention;
+    
+    public IdempotencyService(
+            IdempotencyRecordRepository recordRepository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${wallet.idempotency.cache.max-size:100000}") long cacheMaxSize,
+            @Value("${wallet.idempotency.cache.ttl:10m}") Duration cacheTtl,
+            @Value("${wallet.idempotency.retention:24h}") Duration retention) {
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.recentResponses = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(cacheTtl)
+            .build();
+    }
+    
+    /**
+     * Runs {@code action} at most once per key. {@code fingerprint}
+     * identifies the request; reusing a key for a different request is
+     * rejected.
+     */
+    public <T> ResponseEntity<T> execute(String key, String operation, String fingerprint,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = DigestUtils.md5DigestAsHex(
+            (operation + "|" + fingerprint).getBytes(StandardCharsets.UTF_8));
+        
+        StoredResponse cached = recentResponses.getIfPresent(key);
+        if (cached != null) {
+            log.debug("Idempotent replay from cache: {}", key);
+            return replay(key, cached, requestHash, responseType);
+        }
+        
+        AtomicReference<ResponseEntity<T>> fresh = new AtomicReference<>();
+        StoredResponse stored = transactionTemplate.execute(status -> {
+            if (recordRepository.claim(key, operation, requestHash) == 0) {
+                // Already done (a concurrent claimer would have blocked until it committed)
+                IdempotencyRecord record = recordRepository.findById(key)
+                    .filter(r -> r.getResponseStatus() != null)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key in unknown state: " + key));
+                return new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                    record.getResponseBody());
+            }
+            
+            ResponseEntity<T> response = action.get();
+            String body = serialize(response.getBody());
+            recordRepository.complete(key, response.getStatusCode().value(), body);
+            fresh.set(response);
+            return new StoredResponse(requestHash, response.getStatusCode().value(), body);
+        });
+        
+        recentResponses.put(key, stored);
+        return fresh.get() != null ? fresh.get() : replay(key, stored, requestHash, responseType);
+    }
+    
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+            recordRepository.deleteOlderThan(Instant.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+    
+    private <T> ResponseEntity<T> replay(String key, StoredResponse stored, String requestHash,
+                                         Class<T> responseType) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new IllegalArgumentException(
+                HEADER + " " + key + " was already used for a different request");
+        }
+        return ResponseEntity.status(stored.status)
+            .header(REPLAY_HEADER, "true")
+            .body(deserialize(stored.body, responseType));
+    }
+    
+    private String serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+    
+    private <T> T deserialize(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+    
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final int status;
+        private final String body;
+        
+        private StoredResponse(String requestHash, int status, String body) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
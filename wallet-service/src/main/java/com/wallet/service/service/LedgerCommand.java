@@ -0,0 +1,25 @@
+package com.wallet.service.service;
+
+import java.util.Collection;
+
+/**
+ * A balance mutation that can be applied as part of a ledger batch
+ * (see {@link WalletService#applyBatch(java.util.List)}). Amounts are in
+ * minor units (see {@link com.wallet.service.money.MinorUnits}).
+ */
+public abstract class LedgerCommand {
+    
+    private final long amount;
+    
+    protected LedgerCommand(long amount) {
+        this.amount = amount;
+    }
+    
+    public long getAmount() { return amount; }
+    
+    // Wallet whose lane serializes this command
+    public abstract String getRoutingWalletId();
+    
+    // Every wallet that has to be locked to apply this command
+    public abstract void collectWalletIds(Collection<String> walletIds);
+}
@@ -0,0 +1,44 @@
+package com.wallet.service.service;
+
+import com.wallet.service.entity.Wallet;
+
+/**
+ * Result of a single {@link LedgerCommand} executed as part of a batch.
+ * A failed item carries the exception that rejected it and leaves the
+ * wallets untouched.
+ */
+public class LedgerOutcome {
+    
+    private final LedgerCommand command;
+    private final String transactionId;
+    private final Wallet wallet;
+    private final long balanceAfter;
+    private final RuntimeException failure;
+    
+    private LedgerOutcome(LedgerCommand command, String transactionId, Wallet wallet,
+                          long balanceAfter, RuntimeException failure) {
+        this.command = command;
+        this.transactionId = transactionId;
+        this.wallet = wallet;
+        this.balanceAfter = balanceAfter;
+        this.failure = failure;
+    }
+    
+    // wallet is the credited wallet for funds and the debited wallet for transfers
+    public static LedgerOutcome completed(LedgerCommand command, String transactionId, Wallet wallet) {
+        return new LedgerOutcome(command, transactionId, wallet, wallet.getBalanceMinor(), null);
+    }
+    
+    public static LedgerOutcome failed(LedgerCommand command, RuntimeException failure) {
+        return new LedgerOutcome(command, null, null, 0L, failure);
+    }
+    
+    public boolean isSuccess() { return failure == null; }
+    public LedgerCommand getCommand() { return command; }
+    public String getTransactionId() { return transactionId; }
+    public Wallet getWallet() { return wallet; }
+    // Balance (minor units) right after this command, before later commands in the same batch
+    public long getBalanceAfter() { return balanceAfter; }
+    public RuntimeException getFailure() { return failure; }
+    public String getFailureReason() { return failure == null ? null : failure.getMessage(); }
+}
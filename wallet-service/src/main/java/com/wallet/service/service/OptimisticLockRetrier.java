@@ -0,0 +1,164 @@
+package com.wallet.service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Reruns a wallet mutation that lost an optimistic-lock race, so the
+ * client sees one slower success instead of a 409.
+ *
+ * Each attempt is a fresh transaction, which means this must be called
+ * outside any transaction. Attempts are bounded and spaced by jittered
+ * exponential backoff. On top of that a shared retry budget, refilled by
+ * a fraction of every call, caps retries across the whole instance:
+ * under heavy contention the conflict goes back to the client rather
+ * than multiplying load.
+ */
+@Component
+public class OptimisticLockRetrier {
+    
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetrier.class);
+    
+    // Budget is kept in thousandths of a retry so the refill ratio can be fractional
+    private static final long TOKEN = 1000;
+    
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long budgetCapacity;
+    private final long budgetRefill;
+    private final AtomicLong budget;
+    private final Cache<String, LongAdder> conflictsByWallet;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+    
+    public OptimisticLockRetrier(
+            MeterRegistry meterRegistry,
+            @Value("${wallet.retry.max-attempts:4}") int maxAttempts,
+            @Value("${wallet.retry.initial-backoff:5ms}") Duration initialBackoff,
+            @Value("${wallet.retry.max-backoff:100ms}") Duration maxBackoff,
+            @Value("${wallet.retry.budget.capacity:100}") int budgetCapacity,
+            @Value("${wallet.retry.budget.ratio:0.1}") double budgetRatio,
+            @Value("${wallet.retry.tracked-wallets:10000}") long trackedWallets) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("wallet.retry.max-attempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.budgetCapacity = budgetCapacity * TOKEN;
+        this.budgetRefill = Math.round(budgetRatio * TOKEN);
+        this.budget = new AtomicLong(this.budgetCapacity);
+        this.conflictsByWallet = Caffeine.newBuilder()
+            .maximumSize(trackedWallets)
+            .build();
+        this.conflicts = Counter.builder("wallet.optimistic.conflicts")
+            .description("Optimistic-lock conflicts on wallet mutations")
+            .register(meterRegistry);
+        this.retries = Counter.builder("wallet.optimistic.retries")
+            .description("Wallet mutations rerun after a conflict")
+            .register(meterRegistry);
+        this.exhausted = Counter.builder("wallet.optimistic.exhausted")
+            .description("Conflicts returned to the client after attempts or budget ran out")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Runs {@code mutation}, retrying it on optimistic-lock conflicts.
+     * {@code walletId} is the wallet charged with a conflict when the
+     * exception does not name the entity.
+     */
+    public <T> T execute(String walletId, Supplier<T> mutation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Optimistic-lock retries must run outside a transaction");
+        }
+        refillBudget();
+        
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return mutation.get();
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                recordConflict(ex, walletId);
+                if (attempt >= maxAttempts || !takeRetryToken()) {
+                    exhausted.increment();
+                    throw ex;
+                }
+                retries.increment();
+                log.debug("Optimistic-lock conflict on wallet {}, attempt {} of {}",
+                    walletId, attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+    
+    /**
+     * Wallets with the most conflicts since startup, highest first.
+     * Only the most recently contended {@code tracked-wallets} are kept.
+     */
+    public Map<String, Long> topConflicts(int limit) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        conflictsByWallet.asMap().entrySet().stream()
+            .map(e -> Map.entry(e.getKey(), e.getValue().sum()))
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(limit)
+            .forEach(e -> top.put(e.getKey(), e.getValue()));
+        return top;
+    }
+    
+    public long conflictsFor(String walletId) {
+        LongAdder count = conflictsByWallet.getIfPresent(walletId);
+        return count != null ? count.sum() : 0;
+    }
+    
+    private void recordConflict(ObjectOptimisticLockingFailureException ex, String walletId) {
+        conflicts.increment();
+        Object identifier = ex.getIdentifier();
+        String key = identifier != null ? identifier.toString() : walletId;
+        conflictsByWallet.get(key, k -> new LongAdder()).increment();
+    }
+    
+    private void refillBudget() {
+        budget.getAndUpdate(tokens -> Math.min(budgetCapacity, tokens + budgetRefill));
+    }
+    
+    private boolean takeRetryToken() {
+        long tokens;
+        do {
+            tokens = budget.get();
+            if (tokens < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(tokens, tokens - TOKEN));
+        return true;
+    }
+    
+    // Full jitter: uniform in [0, min(max, initial * 2^(attempt-1))]
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        long nanos = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying wallet mutation", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.wallet.service.service;
+
+import com.wallet.service.entity.Wallet;
+import com.wallet.service.exception.InsufficientBalanceException;
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.repository.WalletBalanceShardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balance operations for sharded wallets (see {@link Wallet#isSharded()}).
+ *
+ * A sharded wallet's money is spread over N {@code wallet_balance_shards}
+ * rows and its {@code wallets} row is never written by credits or debits,
+ * so neither its row lock nor its {@code @Version} column is a bottleneck.
+ * Credits go to a random shard. Debits take any shard that can cover the
+ * amount; if none can, all shards are locked and swept into shard 0.
+ *
+ * Always joins the caller's transaction.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class ShardedBalanceService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ShardedBalanceService.class);
+    
+    private final WalletBalanceShardRepository shardRepository;
+    
+    public ShardedBalanceService(WalletBalanceShardRepository shardRepository) {
+        this.shardRepository = shardRepository;
+    }
+    
+    public void enable(Wallet wallet, int shardCount) {
+        long balance = wallet.enableSharding(shardCount);
+        shardRepository.createShards(wallet.getId(), shardCount, MinorUnits.toDecimal(balance));
+        log.info("Wallet {} split into {} balance shards", wallet.getId(), shardCount);
+    }
+    
+    public void credit(Wallet wallet, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        int shard = ThreadLocalRandom.current().nextInt(wallet.getShardCount());
+        shardRepository.credit(wallet.getId(), shard, MinorUnits.toDecimal(amount));
+    }
+    
+    public void deduct(Wallet wallet, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        BigDecimal decimalAmount = MinorUnits.toDecimal(amount);
+        int shardCount = wallet.getShardCount();
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        if (shardRepository.debitAnyShard(wallet.getId(), shardCount, start, decimalAmount) == 1) {
+            return;
+        }
+        
+        // No single shard covers it (or they are all busy): sweep
+        long total = MinorUnits.fromDecimal(shardRepository.lockAndSum(wallet.getId()));
+        if (total < amount) {
+            throw new InsufficientBalanceException();
+        }
+        shardRepository.consolidate(wallet.getId(), MinorUnits.toDecimal(total - amount));
+        log.debug("Swept {} shards of wallet {} to cover debit", shardCount, wallet.getId());
+    }
+    
+    // Sets the wallet's reported balance to the current sum of its shards
+    public Wallet withTotal(Wallet wallet) {
+        if (wallet.isSharded()) {
+            wallet.setShardTotal(MinorUnits.fromDecimal(shardRepository.totalBalance(wallet.getId())));
+        }
+        return wallet;
+    }
+}
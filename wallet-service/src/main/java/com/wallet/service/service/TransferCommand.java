@@ -0,0 +1,33 @@
+package com.wallet.service.service;
+
+import java.util.Collection;
+
+/**
+ * Move {@code amount} from {@code fromWalletId} to {@code toWalletId}.
+ */
+public class TransferCommand extends LedgerCommand {
+    
+    private final String fromWalletId;
+    private final String toWalletId;
+    
+    public TransferCommand(String fromWalletId, String toWalletId, long amount) {
+        super(amount);
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+    }
+    
+    public String getFromWalletId() { return fromWalletId; }
+    public String getToWalletId() { return toWalletId; }
+    
+    // Transfers queue behind the debited wallet, where the balance check happens
+    @Override
+    public String getRoutingWalletId() {
+        return fromWalletId;
+    }
+    
+    @Override
+    public void collectWalletIds(Collection<String> walletIds) {
+        walletIds.add(fromWalletId);
+        walletIds.add(toWalletId);
+    }
+}
@@ -0,0 +1,37 @@
+package com.wallet.service.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Per-wallet optimistic-lock conflict counts at
+ * {@code /actuator/walletconflicts} (top wallets) and
+ * {@code /actuator/walletconflicts/{walletId}}.
+ */
+@Component
+@Endpoint(id = "walletconflicts")
+public class WalletConflictsEndpoint {
+    
+    private static final int DEFAULT_LIMIT = 20;
+    
+    private final OptimisticLockRetrier retrier;
+    
+    public WalletConflictsEndpoint(OptimisticLockRetrier retrier) {
+        this.retrier = retrier;
+    }
+    
+    @ReadOperation
+    public Map<String, Long> topConflicts(@Nullable Integer limit) {
+        return retrier.topConflicts(limit != null ? limit : DEFAULT_LIMIT);
+    }
+    
+    @ReadOperation
+    public Map<String, Long> walletConflicts(@Selector String walletId) {
+        return Map.of(walletId, retrier.conflictsFor(walletId));
+    }
+}
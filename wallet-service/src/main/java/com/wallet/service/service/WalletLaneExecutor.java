@@ -0,0 +1,239 @@
+package com.wallet.service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Striped single-writer executor in front of {@link WalletService}.
+ *
+ * Each mutation is routed to a lane by wallet id, so all writes to a hot
+ * wallet queue behind one thread instead of convoying on its row lock.
+ * A lane drains whatever has queued up (up to {@code max-batch}) and
+ * group-commits it through {@link WalletService#applyBatch}: one lock
+ * round trip and one commit for the whole group. If the group commit
+ * fails as a whole, its commands are retried one by one so a single bad
+ * command cannot fail its neighbours.
+ *
+ * A full lane makes callers wait up to {@code enqueue-timeout} and then
+ * rejects them with {@link RejectedExecutionException}, so overload turns
+ * into fast 503s instead of piling up request threads. On shutdown the
+ * lanes stop taking new commands and finish the queued ones (for up to
+ * {@code shutdown-timeout}) before exiting.
+ *
+ * Enabled with {@code wallet.lanes.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.lanes", name = "enabled", havingValue = "true")
+public class WalletLaneExecutor {
+    
+    private static final Logger log = LoggerFactory.getLogger(WalletLaneExecutor.class);
+    
+    // How often an idle lane checks whether it should stop
+    private static final long IDLE_POLL_MS = 50;
+    
+    private final WalletService walletService;
+    private final int maxBatch;
+    private final long enqueueTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final Lane[] lanes;
+    private volatile boolean stopping;
+    
+    public WalletLaneExecutor(
+            WalletService walletService,
+            @Value("${wallet.lanes.count:8}") int laneCount,
+            @Value("${wallet.lanes.max-batch:64}") int maxBatch,
+            @Value("${wallet.lanes.queue-capacity:10000}") int queueCapacity,
+            @Value("${wallet.lanes.enqueue-timeout:100ms}") Duration enqueueTimeout,
+            @Value("${wallet.lanes.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.walletService = walletService;
+        this.maxBatch = maxBatch;
+        this.enqueueTimeoutMs = enqueueTimeout.toMillis();
+        this.shutdownTimeoutMs = shutdownTimeout.toMillis();
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, queueCapacity);
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+        log.info("Started {} wallet lanes (max batch: {})", lanes.length, maxBatch);
+    }
+    
+    // Stops taking commands, lets the lanes finish what is queued, then fails any leftovers
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Lane lane : lanes) {
+            if (lane.thread.isAlive()) {
+                log.warn("Wallet lane {} did not drain in {}ms, interrupting it", lane.index, shutdownTimeoutMs);
+                lane.thread.interrupt();
+            }
+            rejectQueued(lane);
+        }
+    }
+    
+    /**
+     * Queues the command on its wallet's lane. Waits up to
+     * {@code enqueue-timeout} while the lane is full, then rejects it.
+     *
+     * @throws RejectedExecutionException if the lane stayed full or the
+     *         executor is shutting down
+     */
+    public CompletableFuture<LedgerOutcome> submit(LedgerCommand command) {
+        if (stopping) {
+            throw new RejectedExecutionException("Wallet lanes are shutting down");
+        }
+        Lane lane = lanes[laneOf(command)];
+        PendingCommand pending = new PendingCommand(command);
+        try {
+            if (!lane.queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Wallet lane " + lane.index + " is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing wallet command", e);
+        }
+        // Raced with stop(): the lane may already be gone, so do not leave the caller waiting
+        if (stopping && !lane.thread.isAlive() && lane.queue.remove(pending)) {
+            throw new RejectedExecutionException("Wallet lanes are shutting down");
+        }
+        return pending.result;
+    }
+    
+    int laneOf(LedgerCommand command) {
+        return Math.floorMod(command.getRoutingWalletId().hashCode(), lanes.length);
+    }
+    
+    /**
+     * Submits the command and waits for it, rethrowing the exception that
+     * rejected it so callers see the same errors as the direct service path.
+     */
+    public LedgerOutcome execute(LedgerCommand command) {
+        LedgerOutcome outcome;
+        try {
+            outcome = submit(command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        if (!outcome.isSuccess()) {
+            throw outcome.getFailure();
+        }
+        return outcome;
+    }
+    
+    private void drain(Lane lane) {
+        List<PendingCommand> batch = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            PendingCommand first;
+            try {
+                first = lane.queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                if (stopping) {
+                    break;  // Drained
+                }
+                continue;
+            }
+            batch.add(first);
+            lane.queue.drainTo(batch, maxBatch - 1);
+            commit(lane, batch);
+            batch.clear();
+        }
+        log.info("Wallet lane {} stopped", lane.index);
+    }
+    
+    private void commit(Lane lane, List<PendingCommand> batch) {
+        List<LedgerCommand> commands = new ArrayList<>(batch.size());
+        for (PendingCommand pending : batch) {
+            commands.add(pending.command);
+        }
+        
+        try {
+            List<LedgerOutcome> outcomes = walletService.applyBatch(commands);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(outcomes.get(i));
+            }
+            log.debug("Wallet lane {} committed {} commands", lane.index, batch.size());
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.warn("Wallet lane {} group commit of {} commands failed, retrying individually",
+                lane.index, batch.size(), e);
+        }
+        
+        for (PendingCommand pending : batch) {
+            try {
+                pending.result.complete(walletService.applyBatch(List.of(pending.command)).get(0));
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private static void rejectQueued(Lane lane) {
+        List<PendingCommand> leftovers = new ArrayList<>();
+        lane.queue.drainTo(leftovers);
+        for (PendingCommand pending : leftovers) {
+            pending.result.completeExceptionally(new RejectedExecutionException("Wallet lanes are shutting down"));
+        }
+    }
+    
+    private final class Lane {
+        private final int index;
+        private final BlockingQueue<PendingCommand> queue;
+        private final Thread thread;
+        
+        private Lane(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(() -> drain(this), "wallet-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+    }
+    
+    private static final class PendingCommand {
+        private final LedgerCommand command;
+        private final CompletableFuture<LedgerOutcome> result = new CompletableFuture<>();
+        
+        private PendingCommand(LedgerCommand command) {
+            this.command = command;
+        }
+    }
+}
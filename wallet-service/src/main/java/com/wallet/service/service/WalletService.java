@@ -1,26 +1,49 @@
 package com.wallet.service.service;
 
+import com.wallet.events.TransferCompletedEvent;
+import com.wallet.events.WalletCreatedEvent;
+import com.wallet.events.WalletEvent;
+import com.wallet.events.WalletFundedEvent;
+import com.wallet.service.cache.WalletCache;
+import com.wallet.service.cache.WalletSnapshot;
 import com.wallet.service.entity.Wallet;
 import com.wallet.service.entity.WalletTransaction;
 import com.wallet.service.entity.WalletTransaction.TransactionStatus;
 import com.wallet.service.entity.WalletTransaction.TransactionType;
-import com.wallet.service.event.TransferCompletedEvent;
-import com.wallet.service.event.WalletCreatedEvent;
-import com.wallet.service.event.WalletFundedEvent;
+import com.wallet.service.exception.InsufficientBalanceException;
+import com.wallet.service.exception.WalletNotFoundException;
+import com.wallet.common.id.IdGenerator;
 import com.wallet.service.kafka.WalletEventProducer;
+import com.wallet.service.metrics.WalletMetrics;
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.repository.WalletLedgerJdbcRepository;
 import com.wallet.service.repository.WalletRepository;
 import com.wallet.service.repository.WalletTransactionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
+/**
+ * Wallet ledger operations. All amounts are in minor units
+ * (see {@link com.wallet.service.money.MinorUnits}).
+ */
 @Service
 public class WalletService {
     
@@ -29,20 +52,58 @@ public class WalletService {
     private final WalletRepository walletRepository;
     private final WalletTransactionRepository transactionRepository;
     private final WalletEventProducer eventProducer;
+    private final ShardedBalanceService shardedBalances;
+    private final IdGenerator idGenerator;
+    private final WalletCache walletCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final WalletLedgerJdbcRepository ledgerJdbc;
+    private final boolean atomicCredit;
+    private final boolean atomicTransfer;
+    private final WalletMetrics metrics;
     
     public WalletService(WalletRepository walletRepository,
                         WalletTransactionRepository transactionRepository,
-                        WalletEventProducer eventProducer) {
+                        WalletEventProducer eventProducer,
+                        ShardedBalanceService shardedBalances,
+                        IdGenerator idGenerator,
+                        WalletCache walletCache,
+                        PlatformTransactionManager transactionManager,
+                        WalletLedgerJdbcRepository ledgerJdbc,
+                        WalletMetrics metrics,
+                        @Value("${wallet.credit.engine:jpa}") String creditEngine,
+                        @Value("${wallet.transfer.engine:jpa}") String transferEngine) {
         this.walletRepository = walletRepository;
         this.transactionRepository = transactionRepository;
         this.eventProducer = eventProducer;
+        this.shardedBalances = shardedBalances;
+        this.idGenerator = idGenerator;
+        this.walletCache = walletCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ledgerJdbc = ledgerJdbc;
+        this.metrics = metrics;
+        this.atomicCredit = isAtomic("wallet.credit.engine", creditEngine);
+        this.atomicTransfer = isAtomic("wallet.transfer.engine", transferEngine);
+    }
+    
+    // jpa (load, mutate, versioned save) or atomic (single SQL statement)
+    private static boolean isAtomic(String property, String engine) {
+        switch (engine) {
+            case "jpa":
+                return false;
+            case "atomic":
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown " + property + ": " + engine);
+        }
     }
     
     @Transactional
     public Wallet createWallet(String userId) {
         log.info("Creating wallet for user: {}", userId);
+        metrics.recordCommit("create");
         
-        String walletId = UUID.randomUUID().toString();
+        String walletId = idGenerator.newId();
         Wallet wallet = new Wallet(walletId, userId);
         
         // Save to database
@@ -50,29 +111,50 @@ public class WalletService {
         
         // Publish event
         WalletCreatedEvent event = new WalletCreatedEvent();
-        event.setEventId(UUID.randomUUID().toString());
+        event.setEventId(idGenerator.newId());
         event.setWalletId(wallet.getId());
         event.setUserId(wallet.getUserId());
         
         eventProducer.publishEvent(event);
+        walletCache.walletCreatedAfterCommit(wallet);
+        flush("create");
         
         log.info("Wallet created: {} for user: {}", walletId, userId);
         return wallet;
     }
     
     @Transactional
-    public Wallet fundWallet(String walletId, BigDecimal amount) {
+    public WalletSnapshot fundWallet(String walletId, long amount) {
         log.info("Funding wallet: {} with amount: {}", walletId, amount);
+        metrics.recordCommit("fund");
+        
+        if (atomicCredit) {
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            String transactionId = idGenerator.newId();
+            Optional<WalletSnapshot> credited = metrics.recordStage("wallet.statement", "fund",
+                () -> ledgerJdbc.credit(walletId, amount, transactionId));
+            if (credited.isPresent()) {
+                WalletSnapshot wallet = credited.get();
+                publishFunded(wallet.getId(), wallet.getUserId(), amount, transactionId);
+                walletCache.refreshAfterCommit(wallet);
+                flush("fund");
+                log.info("Wallet funded: {} new balance: {}", walletId, wallet.getBalance());
+                return wallet;
+            }
+            // Missing, sharded or overflowing: the entity path below reports or handles it
+        }
         
         // Load wallet (with optimistic lock)
         Wallet wallet = walletRepository.findById(walletId)
-            .orElseThrow(() -> new IllegalArgumentException("Wallet not found: " + walletId));
+            .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
         
         // Update balance
-        wallet.addFunds(amount);
+        credit(wallet, amount);
         
         // Create transaction record
-        String transactionId = UUID.randomUUID().toString();
+        String transactionId = idGenerator.newId();
         WalletTransaction transaction = new WalletTransaction(
             transactionId,
             walletId,
@@ -86,53 +168,82 @@ public class WalletService {
         transactionRepository.save(transaction);
         
         // Publish event
+        publishFunded(wallet.getId(), wallet.getUserId(), amount, transactionId);
+        
+        walletCache.refreshAfterCommit(List.of(wallet));
+        flush("fund");
+        
+        shardedBalances.withTotal(wallet);
+        log.info("Wallet funded: {} new balance: {}", walletId, wallet.getBalance());
+        return WalletSnapshot.of(wallet);
+    }
+    
+    // Flushed explicitly (instead of inside commit) so the two are timed separately
+    private void flush(String operation) {
+        metrics.recordStage("wallet.flush", operation, walletRepository::flush);
+    }
+    
+    private void publishFunded(String walletId, String userId, long amount, String transactionId) {
         WalletFundedEvent event = new WalletFundedEvent();
-        event.setEventId(UUID.randomUUID().toString());
-        event.setWalletId(wallet.getId());
-        event.setUserId(wallet.getUserId());
-        event.setAmount(amount);
+        event.setEventId(idGenerator.newId());
+        event.setWalletId(walletId);
+        event.setUserId(userId);
+        event.setAmountMinor(amount);
         event.setTransactionId(transactionId);
         
         eventProducer.publishEvent(event);
-        
-        log.info("Wallet funded: {} new balance: {}", walletId, wallet.getBalance());
-        return wallet;
     }
     
     @Transactional
-    public void transferFunds(String fromWalletId, String toWalletId, BigDecimal amount) {
+    public void transferFunds(String fromWalletId, String toWalletId, long amount) {
         log.info("Transfer: {} -> {} amount: {}", fromWalletId, toWalletId, amount);
+        metrics.recordCommit("transfer");
         
         // Validation
         if (fromWalletId.equals(toWalletId)) {
             throw new IllegalArgumentException("Cannot transfer to the same wallet");
         }
         
+        if (atomicTransfer) {
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            String outTransactionId = idGenerator.newId();
+            String inTransactionId = idGenerator.newId();
+            List<WalletSnapshot> wallets = metrics.recordStage("wallet.statement", "transfer",
+                () -> ledgerJdbc.transfer(fromWalletId, toWalletId, amount, outTransactionId, inTransactionId));
+            if (!wallets.isEmpty()) {
+                WalletSnapshot fromWallet = wallets.get(0);
+                publishTransferred(fromWallet.getUserId(), fromWalletId, toWalletId, amount);
+                wallets.forEach(walletCache::refreshAfterCommit);
+                flush("transfer");
+                log.info("Transfer completed: {} -> {}", fromWalletId, toWalletId);
+                return;
+            }
+            // Not applied: the entity path below reports why, or handles sharded wallets
+        }
+        
         // Lock both wallets in consistent order (prevent deadlock!)
         List<String> walletIds = Arrays.asList(fromWalletId, toWalletId);
         Collections.sort(walletIds);  // Alphabetical order
         
-        List<Wallet> wallets = walletRepository.findByIdInOrderById(walletIds);
+        Map<String, Wallet> wallets = metrics.recordStage("wallet.lock.wait", "transfer",
+            () -> lockWallets(walletIds));
         
         if (wallets.size() != 2) {
-            throw new IllegalArgumentException("One or both wallets not found");
+            throw new WalletNotFoundException("One or both wallets not found");
         }
         
-        // Figure out which is which
-        Wallet fromWallet = wallets.get(0).getId().equals(fromWalletId) 
-            ? wallets.get(0) : wallets.get(1);
-        Wallet toWallet = wallets.get(0).getId().equals(toWalletId) 
-            ? wallets.get(0) : wallets.get(1);
+        Wallet fromWallet = wallets.get(fromWalletId);
+        Wallet toWallet = wallets.get(toWalletId);
         
         // Perform transfer
-        fromWallet.deduct(amount);  // Throws if insufficient balance
-        toWallet.addFunds(amount);
+        deduct(fromWallet, amount);  // Throws if insufficient balance
+        credit(toWallet, amount);
         
         // Create transaction records (one for each wallet)
-        String transactionId = UUID.randomUUID().toString();
-        
         WalletTransaction outTransaction = new WalletTransaction(
-            UUID.randomUUID().toString(),
+            idGenerator.newId(),
             fromWalletId,
             amount,
             TransactionType.TRANSFER_OUT,
@@ -141,7 +252,7 @@ public class WalletService {
         );
         
         WalletTransaction inTransaction = new WalletTransaction(
-            UUID.randomUUID().toString(),
+            idGenerator.newId(),
             toWalletId,
             amount,
             TransactionType.TRANSFER_IN,
@@ -151,31 +262,302 @@ public class WalletService {
         
         // Save everything
         walletRepository.saveAll(Arrays.asList(fromWallet, toWallet));
+        walletCache.refreshAfterCommit(Arrays.asList(fromWallet, toWallet));
         transactionRepository.saveAll(Arrays.asList(outTransaction, inTransaction));
         
         // Publish event
+        publishTransferred(fromWallet.getUserId(), fromWalletId, toWalletId, amount);
+        flush("transfer");
+        
+        log.info("Transfer completed: {} -> {}", fromWalletId, toWalletId);
+    }
+    
+    private void publishTransferred(String userId, String fromWalletId, String toWalletId, long amount) {
         TransferCompletedEvent event = new TransferCompletedEvent();
-        event.setEventId(UUID.randomUUID().toString());
+        event.setEventId(idGenerator.newId());
+        event.setWalletId(fromWalletId);  // Primary wallet in event
+        event.setUserId(userId);
+        event.setFromWalletId(fromWalletId);
+        event.setToWalletId(toWalletId);
+        event.setAmountMinor(amount);
+        event.setTransactionId(idGenerator.newId());
+        
+        eventProducer.publishEvent(event);
+    }
+    
+    /**
+     * Executes many transfers in one database transaction.
+     *
+     * Every wallet touched by the batch is locked exactly once, in id order,
+     * so the whole batch pays for a single lock round trip and a single
+     * flush. Items are applied in request order against the in-memory
+     * balances; an item that fails validation (unknown wallet, same wallet,
+     * insufficient balance) is reported as failed and does not affect the
+     * other items.
+     */
+    @Transactional
+    public List<LedgerOutcome> transferBatch(List<TransferCommand> commands) {
+        return applyBatch(commands);
+    }
+    
+    /**
+     * Applies an ordered mix of fund and transfer commands in one database
+     * transaction, with the same per-item semantics as {@link #transferBatch}.
+     * Used by the batch endpoint and by the wallet lanes to group-commit
+     * queued mutations.
+     */
+    @Transactional
+    public List<LedgerOutcome> applyBatch(List<? extends LedgerCommand> commands) {
+        log.info("Ledger batch: {} items", commands.size());
+        metrics.recordCommit("batch");
+        
+        // Lock every wallet in the batch once, in consistent order (prevent deadlock!)
+        Set<String> walletIds = new TreeSet<>();
+        for (LedgerCommand command : commands) {
+            command.collectWalletIds(walletIds);
+        }
+        
+        Map<String, Wallet> wallets = metrics.recordStage("wallet.lock.wait", "batch",
+            () -> lockWallets(walletIds));
+        
+        List<LedgerOutcome> outcomes = new ArrayList<>(commands.size());
+        Set<Wallet> touched = new LinkedHashSet<>();
+        List<WalletTransaction> transactions = new ArrayList<>();
+        List<WalletEvent> events = new ArrayList<>();
+        
+        for (LedgerCommand command : commands) {
+            try {
+                if (command instanceof FundCommand) {
+                    outcomes.add(applyFund((FundCommand) command, wallets, touched, transactions, events));
+                } else {
+                    outcomes.add(applyTransfer((TransferCommand) command, wallets, touched, transactions, events));
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                outcomes.add(LedgerOutcome.failed(command, e));
+            }
+        }
+        
+        // Save everything in one flush
+        walletRepository.saveAll(touched);
+        walletCache.refreshAfterCommit(touched);
+        transactionRepository.saveAll(transactions);
+        
+        events.forEach(eventProducer::publishEvent);
+        flush("batch");
+        
+        log.info("Ledger batch completed: {} of {} items succeeded", events.size(), commands.size());
+        return outcomes;
+    }
+    
+    private LedgerOutcome applyFund(FundCommand command, Map<String, Wallet> wallets,
+                                    Set<Wallet> touched, List<WalletTransaction> transactions,
+                                    List<WalletEvent> events) {
+        String walletId = command.getWalletId();
+        long amount = command.getAmount();
+        
+        Wallet wallet = wallets.get(walletId);
+        if (wallet == null) {
+            throw new WalletNotFoundException("Wallet not found: " + walletId);
+        }
+        
+        credit(wallet, amount);
+        touched.add(wallet);
+        
+        String transactionId = idGenerator.newId();
+        transactions.add(new WalletTransaction(
+            transactionId,
+            walletId,
+            amount,
+            TransactionType.FUND,
+            TransactionStatus.COMPLETED
+        ));
+        
+        WalletFundedEvent event = new WalletFundedEvent();
+        event.setEventId(idGenerator.newId());
+        event.setWalletId(walletId);
+        event.setUserId(wallet.getUserId());
+        event.setAmountMinor(amount);
+        event.setTransactionId(transactionId);
+        events.add(event);
+        
+        return LedgerOutcome.completed(command, transactionId, shardedBalances.withTotal(wallet));
+    }
+    
+    private LedgerOutcome applyTransfer(TransferCommand command, Map<String, Wallet> wallets,
+                                        Set<Wallet> touched, List<WalletTransaction> transactions,
+                                        List<WalletEvent> events) {
+        String fromWalletId = command.getFromWalletId();
+        String toWalletId = command.getToWalletId();
+        long amount = command.getAmount();
+        
+        if (fromWalletId.equals(toWalletId)) {
+            throw new IllegalArgumentException("Cannot transfer to the same wallet");
+        }
+        
+        Wallet fromWallet = wallets.get(fromWalletId);
+        Wallet toWallet = wallets.get(toWalletId);
+        if (fromWallet == null || toWallet == null) {
+            throw new WalletNotFoundException("One or both wallets not found");
+        }
+        
+        // Both legs are checked before either is applied: a failed item must
+        // not leave a debit behind, as the batch transaction still commits
+        checkTransfer(fromWallet, toWallet, amount);
+        deduct(fromWallet, amount);
+        credit(toWallet, amount);
+        touched.add(fromWallet);
+        touched.add(toWallet);
+        
+        String transactionId = idGenerator.newId();
+        
+        transactions.add(new WalletTransaction(
+            idGenerator.newId(),
+            fromWalletId,
+            amount,
+            TransactionType.TRANSFER_OUT,
+            TransactionStatus.COMPLETED,
+            toWalletId
+        ));
+        transactions.add(new WalletTransaction(
+            idGenerator.newId(),
+            toWalletId,
+            amount,
+            TransactionType.TRANSFER_IN,
+            TransactionStatus.COMPLETED,
+            fromWalletId
+        ));
+        
+        TransferCompletedEvent event = new TransferCompletedEvent();
+        event.setEventId(idGenerator.newId());
         event.setWalletId(fromWalletId);  // Primary wallet in event
         event.setUserId(fromWallet.getUserId());
         event.setFromWalletId(fromWalletId);
         event.setToWalletId(toWalletId);
-        event.setAmount(amount);
+        event.setAmountMinor(amount);
         event.setTransactionId(transactionId);
+        events.add(event);
         
-        eventProducer.publishEvent(event);
+        return LedgerOutcome.completed(command, transactionId, shardedBalances.withTotal(fromWallet));
+    }
+    
+    /**
+     * Locks the given wallets for update, in id order. Sharded wallets are
+     * loaded without locking their row: their balance lives in shard rows,
+     * which the credit/debit statements lock individually.
+     */
+    private Map<String, Wallet> lockWallets(Collection<String> walletIds) {
+        List<String> sortedIds = new ArrayList<>(new TreeSet<>(walletIds));
         
-        log.info("Transfer completed: {} -> {}", fromWalletId, toWalletId);
+        Map<String, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findUnshardedByIdInOrderById(sortedIds)) {
+            wallets.put(wallet.getId(), wallet);
+        }
+        
+        // Anything not returned is either sharded or missing
+        if (wallets.size() < sortedIds.size()) {
+            List<String> remaining = new ArrayList<>(sortedIds);
+            remaining.removeAll(wallets.keySet());
+            for (Wallet wallet : walletRepository.findAllById(remaining)) {
+                wallets.put(wallet.getId(), wallet);
+            }
+        }
+        return wallets;
+    }
+    
+    /**
+     * Throws if either leg of a transfer would be rejected. Sharded legs need
+     * no check here: a sharded debit fails without writing anything, and a
+     * sharded credit can only fail in the database, which aborts the whole
+     * transaction.
+     */
+    private static void checkTransfer(Wallet fromWallet, Wallet toWallet, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (!fromWallet.isSharded() && fromWallet.getBalanceMinor() < amount) {
+            throw new InsufficientBalanceException();
+        }
+        if (!toWallet.isSharded()) {
+            MinorUnits.add(toWallet.getBalanceMinor(), amount);  // Throws on overflow
+        }
+    }
+    
+    private void credit(Wallet wallet, long amount) {
+        if (wallet.isSharded()) {
+            shardedBalances.credit(wallet, amount);
+        } else {
+            wallet.addFunds(amount);
+        }
+    }
+    
+    private void deduct(Wallet wallet, long amount) {
+        if (wallet.isSharded()) {
+            shardedBalances.deduct(wallet, amount);
+        } else {
+            wallet.deduct(amount);
+        }
+    }
+    
+    /**
+     * Splits a wallet's balance across {@code shardCount} sub-balance rows.
+     * Intended for a handful of very hot collection wallets; it cannot be
+     * undone.
+     */
+    @Transactional
+    public Wallet enableSharding(String walletId, int shardCount) {
+        log.info("Sharding wallet: {} into {} balance shards", walletId, shardCount);
+        
+        List<Wallet> wallets = walletRepository.findByIdInOrderById(List.of(walletId));
+        if (wallets.isEmpty()) {
+            throw new WalletNotFoundException("Wallet not found: " + walletId);
+        }
+        
+        Wallet wallet = wallets.get(0);
+        shardedBalances.enable(wallet, shardCount);
+        walletRepository.save(wallet);
+        walletCache.refreshAfterCommit(List.of(wallet));
+        return wallet;
+    }
+    
+    /**
+     * Served from {@link WalletCache}; only a miss touches the database.
+     */
+    public WalletSnapshot getWallet(String walletId) {
+        WalletSnapshot wallet = walletCache.get(walletId, this::loadWallet);
+        if (wallet == null) {
+            throw new WalletNotFoundException("Wallet not found: " + walletId);
+        }
+        return wallet;
+    }
+    
+    public List<WalletSnapshot> getUserWallets(String userId) {
+        List<String> walletIds = walletCache.getUserWalletIds(userId, walletRepository::findIdsByUserId);
+        Map<String, WalletSnapshot> wallets = walletCache.getAll(walletIds, this::loadWallets);
+        
+        List<WalletSnapshot> result = new ArrayList<>(walletIds.size());
+        for (String walletId : walletIds) {
+            WalletSnapshot wallet = wallets.get(walletId);
+            if (wallet != null) {
+                result.add(wallet);
+            }
+        }
+        return result;
     }
     
-    @Transactional(readOnly = true)
-    public Wallet getWallet(String walletId) {
-        return walletRepository.findById(walletId)
-            .orElseThrow(() -> new IllegalArgumentException("Wallet not found: " + walletId));
+    private WalletSnapshot loadWallet(String walletId) {
+        return readOnlyTransaction.execute(status -> walletRepository.findById(walletId)
+            .map(shardedBalances::withTotal)
+            .map(WalletSnapshot::of)
+            .orElse(null));
     }
     
-    @Transactional(readOnly = true)
-    public List<Wallet> getUserWallets(String userId) {
-        return walletRepository.findByUserId(userId);
+    private Map<String, WalletSnapshot> loadWallets(Set<String> walletIds) {
+        return Objects.requireNonNull(readOnlyTransaction.execute(status -> {
+            Map<String, WalletSnapshot> loaded = new HashMap<>();
+            for (Wallet wallet : walletRepository.findAllById(new ArrayList<String>(walletIds))) {
+                loaded.put(wallet.getId(), WalletSnapshot.of(shardedBalances.withTotal(wallet)));
+            }
+            return loaded;
+        }));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.wallet.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WalletCacheTest {
+    
+    private final WalletCache cache = new WalletCache(1000, Duration.ofMinutes(1));
+    
+    @Test
+    void shouldNotLetBulkLoadOverwriteNewerCommit() {
+        // Given - a bulk load that read version 1, while a commit of version 2 lands before it returns
+        Map<String, WalletSnapshot> loaded = cache.getAll(List.of("w1"), missing -> {
+            cache.refreshAfterCommit(snapshot("w1", 200, 2));
+            return Map.of("w1", snapshot("w1", 100, 1));
+        });
+        
+        // Then - the committed state wins, both in the result and in the cache
+        assertThat(loaded.get("w1").getVersion()).isEqualTo(2);
+        assertThat(cache.get("w1", walletId -> null).getBalanceMinor()).isEqualTo(200);
+    }
+    
+    @Test
+    void shouldLoadOnlyMissingWallets() {
+        // Given
+        cache.refreshAfterCommit(snapshot("w1", 100, 3));
+        
+        // When
+        Map<String, WalletSnapshot> loaded = cache.getAll(List.of("w1", "w2"), missing -> {
+            assertThat(missing).containsExactly("w2");
+            return Map.of("w2", snapshot("w2", 50, 1));
+        });
+        
+        // Then
+        assertThat(loaded).containsOnlyKeys("w1", "w2");
+        assertThat(loaded.get("w1").getBalanceMinor()).isEqualTo(100);
+        assertThat(cache.get("w2", walletId -> null).getBalanceMinor()).isEqualTo(50);
+    }
+    
+    private static WalletSnapshot snapshot(String walletId, long balance, long version) {
+        Instant now = Instant.now();
+        return new WalletSnapshot(walletId, "user", balance, version, false, now, now);
+    }
+}
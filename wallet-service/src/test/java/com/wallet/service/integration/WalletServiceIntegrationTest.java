@@ -1,8 +1,14 @@
 package com.wallet.service.integration;
 
+import com.wallet.service.dto.AsyncTransferRequest;
+import com.wallet.service.dto.BatchTransferItem;
+import com.wallet.service.dto.BatchTransferRequest;
+import com.wallet.service.dto.BatchTransferResponse;
 import com.wallet.service.dto.CreateWalletRequest;
+import com.wallet.service.dto.EnableShardingRequest;
 import com.wallet.service.dto.FundWalletRequest;
 import com.wallet.service.dto.TransferRequest;
+import com.wallet.service.dto.TransferStatusResponse;
 import com.wallet.service.dto.WalletResponse;
 import com.wallet.service.entity.Wallet;
 import com.wallet.service.entity.WalletTransaction;
@@ -14,8 +20,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.KafkaContainer;
@@ -23,11 +32,14 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -46,13 +58,18 @@ class WalletServiceIntegrationTest {
     @Autowired
     private WalletTransactionRepository transactionRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     // Testcontainers - these start real Docker containers
     @Container
     static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
         DockerImageName.parse("postgres:15-alpine"))
         .withDatabaseName("test_wallet_db")
         .withUsername("test_user")
-        .withPassword("test_pass");
+        .withPassword("test_pass")
+        .withCopyFileToContainer(MountableFile.forHostPath("../init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
     
     @Container
     static KafkaContainer kafka = new KafkaContainer(
@@ -69,8 +86,12 @@ class WalletServiceIntegrationTest {
     
     @BeforeEach
     void setUp() {
-        // Clean database before each test
+        // Clean database before each test; shard rows reference their wallet
         transactionRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM wallet_balance_shards");
+        jdbcTemplate.update("DELETE FROM pending_transfers");
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
         walletRepository.deleteAll();
     }
     
@@ -130,6 +151,34 @@ class WalletServiceIntegrationTest {
         assertThat(transactions.get(0).getAmount()).isEqualByComparingTo(new BigDecimal("100.00"));
     }
     
+    @Test
+    void shouldApplyFundOnlyOncePerIdempotencyKey() {
+        // Given
+        Wallet wallet = new Wallet("idempotent-wallet", "alice");
+        walletRepository.save(wallet);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "fund-retry-1");
+        HttpEntity<FundWalletRequest> request =
+            new HttpEntity<>(new FundWalletRequest(new BigDecimal("25.00")), headers);
+        
+        // When - the client retries the same request three times
+        for (int i = 0; i < 3; i++) {
+            ResponseEntity<WalletResponse> response = restTemplate.postForEntity(
+                "http://localhost:" + port + "/api/wallets/idempotent-wallet/fund",
+                request,
+                WalletResponse.class
+            );
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().getBalance()).isEqualByComparingTo(new BigDecimal("25.00"));
+        }
+        
+        // Then - credited once
+        Wallet updated = walletRepository.findById("idempotent-wallet").orElseThrow();
+        assertThat(updated.getBalance()).isEqualByComparingTo(new BigDecimal("25.00"));
+        assertThat(transactionRepository.findByWalletIdOrderByCreatedAtDesc("idempotent-wallet")).hasSize(1);
+    }
+    
     @Test
     void shouldRejectNegativeAmount() {
         // Given
@@ -218,6 +267,161 @@ class WalletServiceIntegrationTest {
         assertThat(aliceUnchanged.getBalance()).isEqualByComparingTo(new BigDecimal("50.00"));
     }
     
+    @Test
+    void shouldTransferBatchWithPerItemResults() {
+        // Given
+        Wallet alice = new Wallet("alice-batch", "alice");
+        alice.addFunds(new BigDecimal("100.00"));
+        walletRepository.save(alice);
+        
+        Wallet bob = new Wallet("bob-batch", "bob");
+        walletRepository.save(bob);
+        
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+            new BatchTransferItem("alice-batch", "bob-batch", new BigDecimal("60.00")),
+            new BatchTransferItem("alice-batch", "bob-batch", new BigDecimal("60.00")),  // Insufficient
+            new BatchTransferItem("bob-batch", "missing-wallet", new BigDecimal("10.00")),  // Not found
+            new BatchTransferItem("bob-batch", "alice-batch", new BigDecimal("20.00"))
+        ));
+        
+        // When
+        ResponseEntity<BatchTransferResponse> response = restTemplate.postForEntity(
+            "http://localhost:" + port + "/api/transfers/batch",
+            request,
+            BatchTransferResponse.class
+        );
+        
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getCompleted()).isEqualTo(2);
+        assertThat(response.getBody().getFailed()).isEqualTo(2);
+        assertThat(response.getBody().getResults())
+            .extracting("status")
+            .containsExactly("COMPLETED", "FAILED", "FAILED", "COMPLETED");
+        
+        // Verify balances reflect only the successful items
+        assertThat(walletRepository.findById("alice-batch").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("60.00"));
+        assertThat(walletRepository.findById("bob-batch").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("40.00"));
+        
+        assertThat(transactionRepository.findByWalletIdOrderByCreatedAtDesc("alice-batch")).hasSize(2);
+    }
+    
+    @Test
+    void shouldNotDebitPayerWhenBatchCreditOverflows() {
+        // Given - a payee one minor unit short of the largest balance
+        Wallet alice = new Wallet("alice-overflow", "alice");
+        alice.addFunds(new BigDecimal("100.00"));
+        walletRepository.save(alice);
+        
+        Wallet whale = new Wallet("whale-overflow", "whale");
+        whale.addFunds(Long.MAX_VALUE - 1);
+        walletRepository.save(whale);
+        
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+            new BatchTransferItem("alice-overflow", "whale-overflow", new BigDecimal("10.00"))
+        ));
+        
+        // When
+        ResponseEntity<BatchTransferResponse> response = restTemplate.postForEntity(
+            "http://localhost:" + port + "/api/transfers/batch",
+            request,
+            BatchTransferResponse.class
+        );
+        
+        // Then - the item fails and neither leg is written
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getResults())
+            .extracting("status")
+            .containsExactly("FAILED");
+        assertThat(walletRepository.findById("alice-overflow").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(walletRepository.findById("whale-overflow").orElseThrow().getBalanceMinor())
+            .isEqualTo(Long.MAX_VALUE - 1);
+        assertThat(transactionRepository.findByWalletIdOrderByCreatedAtDesc("alice-overflow")).isEmpty();
+    }
+    
+    @Test
+    void shouldExecuteAsyncTransferAndReportStatus() {
+        // Given
+        Wallet alice = new Wallet("alice-async", "alice");
+        alice.addFunds(new BigDecimal("100.00"));
+        walletRepository.save(alice);
+        walletRepository.save(new Wallet("bob-async", "bob"));
+        
+        AsyncTransferRequest request = new AsyncTransferRequest(
+            "alice-async", "bob-async", new BigDecimal("30.00"));
+        
+        // When
+        ResponseEntity<TransferStatusResponse> accepted = restTemplate.postForEntity(
+            "http://localhost:" + port + "/api/transfers/async",
+            request,
+            TransferStatusResponse.class
+        );
+        
+        // Then - accepted right away, executed by a worker shortly after
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        String transferId = accepted.getBody().getTransferId();
+        assertThat(transferId).isNotNull();
+        
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            TransferStatusResponse status = restTemplate.getForObject(
+                "http://localhost:" + port + "/api/transfers/" + transferId,
+                TransferStatusResponse.class
+            );
+            assertThat(status.getStatus()).isEqualTo("COMPLETED");
+            assertThat(status.getTransactionId()).isNotNull();
+        });
+        
+        assertThat(walletRepository.findById("alice-async").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("70.00"));
+        assertThat(walletRepository.findById("bob-async").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("30.00"));
+    }
+    
+    @Test
+    void shouldSpreadShardedWalletBalanceAcrossShards() {
+        // Given - a sharded collection wallet and a payer
+        Wallet merchant = new Wallet("merchant-wallet", "merchant");
+        merchant.addFunds(new BigDecimal("10.00"));
+        walletRepository.save(merchant);
+        
+        Wallet bob = new Wallet("bob-sharded", "bob");
+        walletRepository.save(bob);
+        
+        restTemplate.postForEntity(
+            "http://localhost:" + port + "/api/wallets/merchant-wallet/shards",
+            new EnableShardingRequest(4),
+            WalletResponse.class
+        );
+        
+        // When - credit it several times, then debit more than any single shard holds
+        for (int i = 0; i < 5; i++) {
+            restTemplate.postForEntity(
+                "http://localhost:" + port + "/api/wallets/merchant-wallet/fund",
+                new FundWalletRequest(new BigDecimal("10.00")),
+                WalletResponse.class
+            );
+        }
+        ResponseEntity<String> transfer = restTemplate.postForEntity(
+            "http://localhost:" + port + "/api/wallets/merchant-wallet/transfer",
+            new TransferRequest("bob-sharded", new BigDecimal("55.00")),
+            String.class
+        );
+        
+        // Then - the wallet reports the sum of its shards
+        assertThat(transfer.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ResponseEntity<WalletResponse> response = restTemplate.getForEntity(
+            "http://localhost:" + port + "/api/wallets/merchant-wallet",
+            WalletResponse.class
+        );
+        assertThat(response.getBody().getBalance()).isEqualByComparingTo(new BigDecimal("5.00"));
+        assertThat(walletRepository.findById("bob-sharded").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("55.00"));
+    }
+    
     @Test
     void shouldHandleConcurrentFunding() throws Exception {
         // Given
@@ -0,0 +1,148 @@
+package com.wallet.service.performance;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator.
+ *
+ * Requests are issued on a fixed schedule ({@code rate} per second)
+ * whether or not earlier ones have finished, and each latency is
+ * measured from the request's scheduled start, not from when a worker got
+ * around to sending it. A slow server therefore shows up as queueing
+ * latency instead of silently lowering the request rate (coordinated
+ * omission). Latencies go into one HdrHistogram per operation.
+ */
+class LoadGenerator {
+    
+    enum Operation { CREATE, FUND, TRANSFER, READ }
+    
+    // OK and REJECTED (a 4xx the workload expects, e.g. insufficient balance) are both answers
+    enum Outcome { OK, REJECTED, ERROR }
+    
+    interface Driver {
+        Outcome execute(Operation operation);
+    }
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    
+    private final LoadProfile profile;
+    private final Driver driver;
+    
+    LoadGenerator(LoadProfile profile, Driver driver) {
+        this.profile = profile;
+        this.driver = driver;
+    }
+    
+    Report run(Duration duration) throws InterruptedException {
+        Report report = new Report();
+        ExecutorService workers = Executors.newFixedThreadPool(profile.maxInFlight);
+        
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.rate;
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+        for (long i = 0; i * intervalNanos < durationNanos; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick();
+            workers.execute(() -> {
+                Outcome outcome;
+                try {
+                    outcome = driver.execute(operation);
+                } catch (RuntimeException e) {
+                    outcome = Outcome.ERROR;
+                }
+                report.record(operation, outcome, System.nanoTime() - intended);
+            });
+        }
+        
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.MINUTES)) {
+            workers.shutdownNow();
+            throw new IllegalStateException("Requests still in flight 5 minutes after the run ended");
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+    
+    private Operation pick() {
+        int total = profile.createWeight + profile.fundWeight + profile.transferWeight + profile.readWeight;
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        if ((roll -= profile.createWeight) < 0) {
+            return Operation.CREATE;
+        }
+        if ((roll -= profile.fundWeight) < 0) {
+            return Operation.FUND;
+        }
+        if ((roll -= profile.transferWeight) < 0) {
+            return Operation.TRANSFER;
+        }
+        return Operation.READ;
+    }
+    
+    static class Report {
+        final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        final Map<Operation, Map<Outcome, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+        long elapsedNanos;
+        
+        Report() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+                Map<Outcome, LongAdder> counts = new EnumMap<>(Outcome.class);
+                for (Outcome outcome : Outcome.values()) {
+                    counts.put(outcome, new LongAdder());
+                }
+                outcomes.put(operation, counts);
+            }
+        }
+        
+        void record(Operation operation, Outcome outcome, long latencyNanos) {
+            long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS);
+            latencies.get(operation).recordValue(micros);
+            outcomes.get(operation).get(outcome).increment();
+        }
+        
+        long count(Operation operation, Outcome outcome) {
+            return outcomes.get(operation).get(outcome).sum();
+        }
+        
+        void print(PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            out.printf("%-9s %8s %8s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "ok", "rejected", "error", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (Operation operation : Operation.values()) {
+                Histogram h = latencies.get(operation);
+                out.printf("%-9s %8d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation,
+                    count(operation, Outcome.OK),
+                    count(operation, Outcome.REJECTED),
+                    count(operation, Outcome.ERROR),
+                    h.getTotalCount() / seconds,
+                    h.getValueAtPercentile(50) / 1000.0,
+                    h.getValueAtPercentile(90) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0);
+            }
+        }
+        
+        // Full percentile distribution, in milliseconds (HdrHistogram .hgrm format)
+        void writeDistribution(Operation operation, PrintStream out) {
+            latencies.get(operation).outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
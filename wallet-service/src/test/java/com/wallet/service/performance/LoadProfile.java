@@ -0,0 +1,42 @@
+package com.wallet.service.performance;
+
+import java.time.Duration;
+
+/**
+ * Knobs for {@link LoadGenerator}, read from {@code load.*} system
+ * properties so a run can be reshaped from the command line, e.g.
+ * {@code mvn test -Dtest=LoadTest -Dload.enabled=true -Dload.rate=500 -Dload.zipf=1.2}.
+ */
+class LoadProfile {
+    
+    // Open-loop arrival rate (requests per second), independent of response times
+    final int rate = intProperty("load.rate", 200);
+    final Duration warmup = Duration.ofSeconds(intProperty("load.warmup-seconds", 10));
+    final Duration duration = Duration.ofSeconds(intProperty("load.duration-seconds", 60));
+    
+    // Upper bound on requests in flight; arrivals beyond it queue (and the queueing is measured)
+    final int maxInFlight = intProperty("load.max-in-flight", 256);
+    
+    // Operation mix, as relative weights
+    final int createWeight = intProperty("load.mix.create", 5);
+    final int fundWeight = intProperty("load.mix.fund", 25);
+    final int transferWeight = intProperty("load.mix.transfer", 40);
+    final int readWeight = intProperty("load.mix.read", 30);
+    
+    // Wallet population and skew: exponent 0 is uniform, ~1 is classic Zipf, >1 is hotter
+    final int wallets = intProperty("load.wallets", 1000);
+    final double zipfExponent = Double.parseDouble(System.getProperty("load.zipf", "1.0"));
+    final long initialBalanceMinor = intProperty("load.initial-balance", 1000) * 10_000L;
+    
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+    
+    @Override
+    public String toString() {
+        return "rate=" + rate + "/s, warmup=" + warmup.getSeconds() + "s, duration=" + duration.getSeconds()
+            + "s, maxInFlight=" + maxInFlight + ", mix(create/fund/transfer/read)=" + createWeight + "/"
+            + fundWeight + "/" + transferWeight + "/" + readWeight + ", wallets=" + wallets
+            + ", zipf=" + zipfExponent;
+    }
+}
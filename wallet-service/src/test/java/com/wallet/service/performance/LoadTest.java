@@ -0,0 +1,191 @@
+package com.wallet.service.performance;
+
+import com.wallet.service.dto.CreateWalletRequest;
+import com.wallet.service.dto.FundWalletRequest;
+import com.wallet.service.dto.TransferRequest;
+import com.wallet.service.entity.Wallet;
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.performance.LoadGenerator.Operation;
+import com.wallet.service.performance.LoadGenerator.Outcome;
+import com.wallet.service.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a configurable create/fund/transfer/read mix against the full
+ * service (Postgres and Kafka in Testcontainers) and checks afterwards
+ * that no money was created or destroyed.
+ *
+ * Opt-in, since a run takes minutes:
+ * {@code mvn test -Dtest=LoadTest -Dload.enabled=true}. See
+ * {@link LoadProfile} for the other knobs. Latency distributions are
+ * written to {@code target/load-results/<operation>.hgrm}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+class LoadTest {
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Autowired
+    private WalletRepository walletRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgres:15-alpine"))
+        .withDatabaseName("test_wallet_db")
+        .withUsername("test_user")
+        .withPassword("test_pass")
+        .withCopyFileToContainer(MountableFile.forHostPath("../init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
+    
+    @Container
+    static KafkaContainer kafka = new KafkaContainer(
+        DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+    }
+    
+    private final LoadProfile profile = new LoadProfile();
+    
+    // Client-side tally of money that entered the system through successful funds
+    private final LongAdder fundedMinor = new LongAdder();
+    
+    @Test
+    void runWorkloadAndConserveMoney() throws Exception {
+        List<String> walletIds = seedWallets();
+        long seededMinor = profile.initialBalanceMinor * walletIds.size();
+        ZipfSampler sampler = new ZipfSampler(walletIds.size(), profile.zipfExponent);
+        LoadGenerator generator = new LoadGenerator(profile,
+            operation -> execute(operation, walletIds, sampler));
+        
+        System.out.println("Load profile: " + profile);
+        generator.run(profile.warmup);
+        LoadGenerator.Report report = generator.run(profile.duration);
+        report.print(System.out);
+        writeDistributions(report);
+        
+        for (Operation operation : Operation.values()) {
+            assertThat(report.count(operation, Outcome.ERROR))
+                .as("%s requests that failed outright", operation)
+                .isZero();
+        }
+        
+        // Conservation: balances = seed + external funding, and every transfer leg has its pair
+        long balances = minor(jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(balance), 0) FROM wallets WHERE shard_count = 0", BigDecimal.class))
+            + minor(jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(balance), 0) FROM wallet_balance_shards", BigDecimal.class));
+        long ledgerFunds = ledgerTotal("FUND");
+        
+        assertThat(ledgerFunds).isEqualTo(fundedMinor.sum());
+        assertThat(ledgerTotal("TRANSFER_OUT")).isEqualTo(ledgerTotal("TRANSFER_IN"));
+        assertThat(balances).isEqualTo(seededMinor + ledgerFunds);
+    }
+    
+    private Outcome execute(Operation operation, List<String> walletIds, ZipfSampler sampler) {
+        ResponseEntity<String> response;
+        switch (operation) {
+            case CREATE -> response = restTemplate.postForEntity("/api/wallets",
+                new CreateWalletRequest("load-" + ThreadLocalRandom.current().nextInt(1_000_000)),
+                String.class);
+            case FUND -> {
+                long amount = randomAmount();
+                response = restTemplate.postForEntity(
+                    "/api/wallets/" + walletIds.get(sampler.next()) + "/fund",
+                    new FundWalletRequest(MinorUnits.toDecimal(amount)), String.class);
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    fundedMinor.add(amount);
+                }
+            }
+            case TRANSFER -> {
+                int from = sampler.next();
+                int to = sampler.nextOtherThan(from);
+                response = restTemplate.postForEntity(
+                    "/api/wallets/" + walletIds.get(from) + "/transfer",
+                    new TransferRequest(walletIds.get(to), MinorUnits.toDecimal(randomAmount())),
+                    String.class);
+            }
+            default -> response = restTemplate.getForEntity(
+                "/api/wallets/" + walletIds.get(sampler.next()), String.class);
+        }
+        
+        if (response.getStatusCode().is2xxSuccessful()) {
+            return Outcome.OK;
+        }
+        // 4xx is an expected answer (e.g. insufficient balance, retries exhausted on a hot wallet)
+        return response.getStatusCode().is4xxClientError() ? Outcome.REJECTED : Outcome.ERROR;
+    }
+    
+    // Whole currency units between 1 and 100
+    private static long randomAmount() {
+        return (1 + ThreadLocalRandom.current().nextInt(100)) * 10_000L;
+    }
+    
+    private List<String> seedWallets() {
+        List<Wallet> wallets = new ArrayList<>(profile.wallets);
+        for (int i = 0; i < profile.wallets; i++) {
+            Wallet wallet = new Wallet(UUID.randomUUID().toString(), "load-seed-" + i);
+            wallet.addFunds(profile.initialBalanceMinor);
+            wallets.add(wallet);
+        }
+        walletRepository.saveAll(wallets);
+        return wallets.stream().map(Wallet::getId).toList();
+    }
+    
+    private long ledgerTotal(String type) {
+        return minor(jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(amount), 0) FROM wallet_transactions WHERE type = ? AND status = 'COMPLETED'",
+            BigDecimal.class, type));
+    }
+    
+    private static long minor(BigDecimal amount) {
+        return MinorUnits.fromDecimal(amount.stripTrailingZeros());
+    }
+    
+    private static void writeDistributions(LoadGenerator.Report report) throws IOException {
+        Path dir = Files.createDirectories(Path.of("target", "load-results"));
+        for (Operation operation : Operation.values()) {
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(dir.resolve(operation.name().toLowerCase() + ".hgrm")))) {
+                report.writeDistribution(operation, out);
+            }
+        }
+    }
+}
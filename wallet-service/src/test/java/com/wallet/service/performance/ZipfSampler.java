@@ -0,0 +1,43 @@
+package com.wallet.service.performance;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws ranks 0..n-1 with probability proportional to 1/(rank+1)^s, so a
+ * few low ranks (hot wallets) get most of the traffic.
+ */
+class ZipfSampler {
+    
+    private final double[] cumulative;
+    
+    ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+    
+    int next() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+    
+    // Two distinct ranks, for picking a transfer's payer and payee
+    int nextOtherThan(int rank) {
+        if (cumulative.length < 2) {
+            throw new IllegalStateException("Need at least two wallets");
+        }
+        int other;
+        do {
+            other = next();
+        } while (other == rank);
+        return other;
+    }
+}
@@ -0,0 +1,324 @@
+package com.wallet.service.repository;
+
+import com.wallet.service.cache.WalletSnapshot;
+import com.wallet.service.entity.Wallet;
+import com.wallet.service.exception.WalletNotFoundException;
+import com.wallet.service.money.MinorUnits;
+import com.wallet.service.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The single-statement ledger writes behind the {@code atomic} credit and
+ * transfer engines, against a real Postgres: what they refuse to apply,
+ * and the version bump the optimistic lock and the wallet cache rely on.
+ */
+@SpringBootTest(properties = {"wallet.credit.engine=atomic", "wallet.transfer.engine=atomic"})
+@Testcontainers
+class WalletLedgerJdbcRepositoryIntegrationTest {
+    
+    @Autowired
+    private WalletLedgerJdbcRepository ledgerJdbc;
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private WalletRepository walletRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgres:15-alpine"))
+        .withDatabaseName("test_wallet_db")
+        .withUsername("test_user")
+        .withPassword("test_pass")
+        .withCopyFileToContainer(MountableFile.forHostPath("../init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
+    
+    @Container
+    static KafkaContainer kafka = new KafkaContainer(
+        DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+    }
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM wallet_transactions");
+        jdbcTemplate.update("DELETE FROM wallet_balance_shards");
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM wallets");
+    }
+    
+    @Test
+    void shouldCreditAndBumpVersion() {
+        // Given
+        Wallet wallet = new Wallet("credit-wallet", "alice");
+        wallet.addFunds(new BigDecimal("10.00"));
+        walletRepository.save(wallet);
+        long versionBefore = walletRepository.findById("credit-wallet").orElseThrow().getVersion();
+        
+        // When
+        Optional<WalletSnapshot> credited = ledgerJdbc.credit("credit-wallet", minor("5.00"), "credit-tx");
+        
+        // Then - one version step, so a concurrent JPA save of the old version conflicts
+        assertThat(credited).isPresent();
+        assertThat(credited.get().getBalance()).isEqualByComparingTo(new BigDecimal("15.00"));
+        assertThat(credited.get().getVersion()).isEqualTo(versionBefore + 1);
+        
+        Wallet stored = walletRepository.findById("credit-wallet").orElseThrow();
+        assertThat(stored.getBalance()).isEqualByComparingTo(new BigDecimal("15.00"));
+        assertThat(stored.getVersion()).isEqualTo(versionBefore + 1);
+        assertThat(ledgerRows("credit-wallet", "FUND")).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldNotCreditMissingWallet() {
+        // When
+        Optional<WalletSnapshot> credited = ledgerJdbc.credit("missing-wallet", minor("5.00"), "missing-tx");
+        
+        // Then - no ledger row either, and the service reports the missing wallet
+        assertThat(credited).isEmpty();
+        assertThat(ledgerRows("missing-wallet", "FUND")).isZero();
+        assertThatThrownBy(() -> walletService.fundWallet("missing-wallet", minor("5.00")))
+            .isInstanceOf(WalletNotFoundException.class);
+    }
+    
+    @Test
+    void shouldLeaveShardedWalletToShardedPath() {
+        // Given
+        Wallet wallet = new Wallet("sharded-credit", "merchant");
+        wallet.addFunds(new BigDecimal("10.00"));
+        walletRepository.save(wallet);
+        walletService.enableSharding("sharded-credit", 4);
+        
+        // When
+        Optional<WalletSnapshot> credited = ledgerJdbc.credit("sharded-credit", minor("5.00"), "sharded-tx");
+        
+        // Then - the statement skips it; the service falls back and credits a shard
+        assertThat(credited).isEmpty();
+        assertThat(ledgerRows("sharded-credit", "FUND")).isZero();
+        
+        WalletSnapshot funded = walletService.fundWallet("sharded-credit", minor("5.00"));
+        assertThat(funded.getBalance()).isEqualByComparingTo(new BigDecimal("15.00"));
+        assertThat(shardTotal("sharded-credit")).isEqualByComparingTo(new BigDecimal("15.00"));
+        assertThat(ledgerRows("sharded-credit", "FUND")).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldNotCreditPastLargestBalance() {
+        // Given - one minor unit short of the largest balance
+        Wallet wallet = new Wallet("full-wallet", "whale");
+        wallet.addFunds(Long.MAX_VALUE - 1);
+        walletRepository.save(wallet);
+        long versionBefore = walletRepository.findById("full-wallet").orElseThrow().getVersion();
+        
+        // When
+        Optional<WalletSnapshot> credited = ledgerJdbc.credit("full-wallet", 2L, "overflow-tx");
+        
+        // Then - untouched, and the service rejects it as an overflow
+        assertThat(credited).isEmpty();
+        Wallet stored = walletRepository.findById("full-wallet").orElseThrow();
+        assertThat(stored.getBalanceMinor()).isEqualTo(Long.MAX_VALUE - 1);
+        assertThat(stored.getVersion()).isEqualTo(versionBefore);
+        assertThat(ledgerRows("full-wallet", "FUND")).isZero();
+        assertThatThrownBy(() -> walletService.fundWallet("full-wallet", 2L))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("overflow");
+        
+        // Exactly reaching the largest balance is still fine
+        assertThat(ledgerJdbc.credit("full-wallet", 1L, "exact-tx")).isPresent();
+        assertThat(walletRepository.findById("full-wallet").orElseThrow().getBalanceMinor())
+            .isEqualTo(Long.MAX_VALUE);
+    }
+    
+    @Test
+    void shouldTransferAndBumpBothVersions() {
+        // Given
+        saveWallet("alice-transfer", "100.00");
+        saveWallet("bob-transfer", "0.00");
+        long aliceVersion = walletRepository.findById("alice-transfer").orElseThrow().getVersion();
+        long bobVersion = walletRepository.findById("bob-transfer").orElseThrow().getVersion();
+        
+        // When
+        List<WalletSnapshot> wallets = ledgerJdbc.transfer(
+            "alice-transfer", "bob-transfer", minor("30.00"), "out-tx", "in-tx");
+        
+        // Then - payer first, both one version further
+        assertThat(wallets).extracting(WalletSnapshot::getId).containsExactly("alice-transfer", "bob-transfer");
+        assertThat(wallets.get(0).getBalance()).isEqualByComparingTo(new BigDecimal("70.00"));
+        assertThat(wallets.get(1).getBalance()).isEqualByComparingTo(new BigDecimal("30.00"));
+        assertThat(wallets.get(0).getVersion()).isEqualTo(aliceVersion + 1);
+        assertThat(wallets.get(1).getVersion()).isEqualTo(bobVersion + 1);
+        assertThat(ledgerRows("alice-transfer", "TRANSFER_OUT")).isEqualTo(1);
+        assertThat(ledgerRows("bob-transfer", "TRANSFER_IN")).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldWriteNothingWhenPayerCannotCover() {
+        // Given
+        saveWallet("alice-short", "50.00");
+        saveWallet("bob-short", "10.00");
+        
+        // When
+        List<WalletSnapshot> wallets = ledgerJdbc.transfer(
+            "alice-short", "bob-short", minor("100.00"), "out-tx", "in-tx");
+        
+        // Then - neither side nor the ledger moved
+        assertThat(wallets).isEmpty();
+        assertUnchanged("alice-short", "50.00");
+        assertUnchanged("bob-short", "10.00");
+        assertThat(ledgerRows("alice-short", "TRANSFER_OUT")).isZero();
+        assertThat(ledgerRows("bob-short", "TRANSFER_IN")).isZero();
+    }
+    
+    @Test
+    void shouldWriteNothingWhenPayeeIsMissing() {
+        // Given
+        saveWallet("alice-orphan", "100.00");
+        
+        // When
+        List<WalletSnapshot> wallets = ledgerJdbc.transfer(
+            "alice-orphan", "missing-wallet", minor("30.00"), "out-tx", "in-tx");
+        
+        // Then - the payer keeps its money, and the service reports the missing wallet
+        assertThat(wallets).isEmpty();
+        assertUnchanged("alice-orphan", "100.00");
+        assertThat(ledgerRows("alice-orphan", "TRANSFER_OUT")).isZero();
+        assertThatThrownBy(() -> walletService.transferFunds("alice-orphan", "missing-wallet", minor("30.00")))
+            .isInstanceOf(WalletNotFoundException.class);
+        assertUnchanged("alice-orphan", "100.00");
+    }
+    
+    @Test
+    void shouldLeaveShardedWalletsToShardedPath() {
+        // Given - a sharded payee and a sharded payer
+        saveWallet("alice-to-shards", "100.00");
+        saveWallet("merchant-shards", "10.00");
+        walletService.enableSharding("merchant-shards", 4);
+        saveWallet("bob-from-shards", "0.00");
+        
+        // When / Then - the statement applies neither direction
+        assertThat(ledgerJdbc.transfer("alice-to-shards", "merchant-shards", minor("30.00"), "out-1", "in-1"))
+            .isEmpty();
+        assertThat(ledgerJdbc.transfer("merchant-shards", "bob-from-shards", minor("5.00"), "out-2", "in-2"))
+            .isEmpty();
+        assertUnchanged("alice-to-shards", "100.00");
+        assertThat(shardTotal("merchant-shards")).isEqualByComparingTo(new BigDecimal("10.00"));
+        
+        // The service falls back to the entity path for both
+        walletService.transferFunds("alice-to-shards", "merchant-shards", minor("30.00"));
+        walletService.transferFunds("merchant-shards", "bob-from-shards", minor("35.00"));
+        assertThat(walletRepository.findById("alice-to-shards").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("70.00"));
+        assertThat(shardTotal("merchant-shards")).isEqualByComparingTo(new BigDecimal("5.00"));
+        assertThat(walletRepository.findById("bob-from-shards").orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("35.00"));
+    }
+    
+    @Test
+    void shouldNotDeadlockOnOppositeTransfers() throws Exception {
+        // Given
+        saveWallet("alice-both-ways", "1000.00");
+        saveWallet("bob-both-ways", "1000.00");
+        int rounds = 200;
+        
+        // When - the same pair moves money both ways at once; both statements lock in id order
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            results.add(threads.submit(oneWay(start, "alice-both-ways", "bob-both-ways", rounds)));
+            results.add(threads.submit(oneWay(start, "bob-both-ways", "alice-both-ways", rounds)));
+            start.countDown();
+            
+            // Then - every transfer applied (a deadlock would surface as an exception here)
+            for (Future<Integer> result : results) {
+                assertThat(result.get(60, TimeUnit.SECONDS)).isEqualTo(rounds);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        assertUnchanged("alice-both-ways", "1000.00");
+        assertUnchanged("bob-both-ways", "1000.00");
+        assertThat(ledgerRows("alice-both-ways", "TRANSFER_OUT")).isEqualTo(rounds);
+        assertThat(ledgerRows("bob-both-ways", "TRANSFER_OUT")).isEqualTo(rounds);
+    }
+    
+    private Callable<Integer> oneWay(CountDownLatch start, String fromWalletId, String toWalletId, int rounds) {
+        return () -> {
+            start.await();
+            int applied = 0;
+            for (int i = 0; i < rounds; i++) {
+                List<WalletSnapshot> wallets = ledgerJdbc.transfer(fromWalletId, toWalletId, minor("1.00"),
+                    fromWalletId + "-out-" + i, fromWalletId + "-in-" + i);
+                if (!wallets.isEmpty()) {
+                    applied++;
+                }
+            }
+            return applied;
+        };
+    }
+    
+    private void saveWallet(String walletId, String balance) {
+        Wallet wallet = new Wallet(walletId, "user");
+        if (new BigDecimal(balance).signum() > 0) {
+            wallet.addFunds(new BigDecimal(balance));
+        }
+        walletRepository.save(wallet);
+    }
+    
+    private void assertUnchanged(String walletId, String balance) {
+        assertThat(walletRepository.findById(walletId).orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal(balance));
+    }
+    
+    private static long minor(String amount) {
+        return MinorUnits.fromDecimal(new BigDecimal(amount));
+    }
+    
+    private int ledgerRows(String walletId, String type) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM wallet_transactions WHERE wallet_id = ? AND type = ?",
+            Integer.class, walletId, type);
+    }
+    
+    private BigDecimal shardTotal(String walletId) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(balance), 0) FROM wallet_balance_shards WHERE wallet_id = ?",
+            BigDecimal.class, walletId);
+    }
+}
@@ -0,0 +1,93 @@
+package com.wallet.service.service;
+
+import com.wallet.service.entity.PendingTransfer;
+import com.wallet.service.entity.Wallet;
+import com.wallet.common.id.IdGenerator;
+import com.wallet.service.repository.PendingTransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncTransferServiceTest {
+    
+    private static final int MAX_ATTEMPTS = 3;
+    
+    private PendingTransferRepository pendingRepository;
+    private WalletService walletService;
+    private AsyncTransferService service;
+    
+    private final PendingTransfer good1 = new PendingTransfer("t1", "alice", "bob", 100L);
+    private final PendingTransfer poison = new PendingTransfer("t2", "alice", "broken", 100L);
+    private final PendingTransfer good2 = new PendingTransfer("t3", "bob", "alice", 100L);
+    
+    @BeforeEach
+    void setUp() {
+        pendingRepository = mock(PendingTransferRepository.class);
+        walletService = mock(WalletService.class);
+        // A transaction manager that does nothing: the test only checks what the service does inside it
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        service = new AsyncTransferService(pendingRepository, walletService, transactionTemplate,
+            mock(IdGenerator.class), 0, 10, 100, MAX_ATTEMPTS);
+        
+        List<PendingTransfer> queued = List.of(good1, poison, good2);
+        when(pendingRepository.claimBatch(anyInt())).thenAnswer(invocation -> queued.stream()
+            .filter(transfer -> transfer.getStatus() == PendingTransfer.Status.PENDING)
+            .toList());
+        for (PendingTransfer transfer : queued) {
+            when(pendingRepository.claim(transfer.getId())).thenAnswer(invocation ->
+                transfer.getStatus() == PendingTransfer.Status.PENDING ? Optional.of(transfer) : Optional.empty());
+        }
+        
+        // Any batch holding the poison transfer fails as a whole, like a constraint violation would
+        when(walletService.applyBatch(anyList())).thenAnswer(invocation -> {
+            List<TransferCommand> commands = invocation.getArgument(0);
+            List<LedgerOutcome> outcomes = new ArrayList<>();
+            for (TransferCommand command : commands) {
+                if (command.getToWalletId().equals("broken")) {
+                    throw new DataIntegrityViolationException("constraint violated");
+                }
+                outcomes.add(LedgerOutcome.completed(command, "tx-" + command.getFromWalletId(),
+                    new Wallet(command.getFromWalletId(), "user")));
+            }
+            return outcomes;
+        });
+    }
+    
+    @Test
+    void shouldRetryFailedBatchOneByOne() {
+        int processed = service.processBatch();
+        
+        assertThat(processed).isEqualTo(3);
+        assertThat(good1.getStatus()).isEqualTo(PendingTransfer.Status.COMPLETED);
+        assertThat(good2.getStatus()).isEqualTo(PendingTransfer.Status.COMPLETED);
+        assertThat(poison.getStatus()).isEqualTo(PendingTransfer.Status.PENDING);
+        assertThat(poison.getAttempts()).isEqualTo(1);
+        assertThat(poison.getFailureReason()).contains("constraint violated");
+    }
+    
+    @Test
+    void shouldMarkTransferFailedAfterMaxAttempts() {
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            service.processBatch();
+        }
+        
+        assertThat(poison.getStatus()).isEqualTo(PendingTransfer.Status.FAILED);
+        assertThat(poison.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(poison.getCompletedAt()).isNotNull();
+        
+        // The queue is clear: the next poll claims nothing
+        assertThat(service.processBatch()).isZero();
+    }
+}
@@ -0,0 +1,178 @@
+package com.wallet.service.service;
+
+import com.wallet.service.entity.Wallet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WalletLaneExecutorTest {
+    
+    private final WalletService walletService = mock(WalletService.class);
+    
+    // Every applyBatch call, as the routing wallet ids of its commands, with the lane thread that ran it
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final Map<String, List<String>> threadsByWallet = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> amountsByWallet = new ConcurrentHashMap<>();
+    
+    // Commands for "blocker" hold their lane until released
+    private final CountDownLatch blockerEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseBlocker = new CountDownLatch(1);
+    
+    private WalletLaneExecutor executor;
+    
+    @AfterEach
+    void tearDown() {
+        releaseBlocker.countDown();
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+    
+    @Test
+    void shouldKeepEachWalletOnOneLaneInOrder() {
+        // Given
+        executor = start(4, 64, 1000);
+        
+        // When - interleaved commands for many wallets
+        List<CompletableFuture<LedgerOutcome>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            for (int wallet = 0; wallet < 10; wallet++) {
+                results.add(executor.submit(new FundCommand("wallet-" + wallet, i + 1)));
+            }
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+        
+        // Then - one thread per wallet, commands applied in submission order
+        for (int wallet = 0; wallet < 10; wallet++) {
+            String walletId = "wallet-" + wallet;
+            assertThat(threadsByWallet.get(walletId)).as(walletId).containsOnly(
+                "wallet-lane-" + executor.laneOf(new FundCommand(walletId, 1)));
+            List<Long> amounts = amountsByWallet.get(walletId);
+            assertThat(amounts).hasSize(50).isSorted();
+        }
+    }
+    
+    @Test
+    void shouldRejectWhenLaneIsFull() throws Exception {
+        // Given - one lane, held busy, with room for two queued commands
+        executor = start(1, 1, 2);
+        CompletableFuture<LedgerOutcome> blocker = executor.submit(new FundCommand("blocker", 1));
+        assertThat(blockerEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<LedgerOutcome> first = executor.submit(new FundCommand("alice", 1));
+        CompletableFuture<LedgerOutcome> second = executor.submit(new FundCommand("bob", 1));
+        
+        // When / Then - the next caller is turned away instead of waiting indefinitely
+        assertThatThrownBy(() -> executor.submit(new FundCommand("carol", 1)))
+            .isInstanceOf(RejectedExecutionException.class)
+            .hasMessageContaining("full");
+        
+        // The queued commands still run once the lane frees up
+        releaseBlocker.countDown();
+        assertThat(blocker.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        assertThat(first.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+    }
+    
+    @Test
+    void shouldRetryIndividuallyWhenGroupCommitFails() throws Exception {
+        // Given - a lane held busy while three commands queue behind it, one of them poisoned
+        executor = start(1, 64, 100);
+        executor.submit(new FundCommand("blocker", 1));
+        assertThat(blockerEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<LedgerOutcome> good1 = executor.submit(new FundCommand("alice", 1));
+        CompletableFuture<LedgerOutcome> poison = executor.submit(new FundCommand("poison", 1));
+        CompletableFuture<LedgerOutcome> good2 = executor.submit(new FundCommand("bob", 1));
+        
+        // When
+        releaseBlocker.countDown();
+        
+        // Then - the group fails as a whole, then each command commits on its own
+        assertThat(good1.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        assertThat(good2.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        assertThatThrownBy(() -> poison.get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(batches).contains(
+            List.of("alice", "poison", "bob"),
+            List.of("alice"),
+            List.of("poison"),
+            List.of("bob"));
+    }
+    
+    @Test
+    void shouldDrainQueuedCommandsOnShutdown() throws Exception {
+        // Given - commands queued behind a busy lane
+        executor = start(1, 1, 100);
+        CompletableFuture<LedgerOutcome> blocker = executor.submit(new FundCommand("blocker", 1));
+        assertThat(blockerEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<LedgerOutcome>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(executor.submit(new FundCommand("alice", i + 1)));
+        }
+        
+        // When - shutdown starts while the lane is still busy
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(executor::stop);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+            assertThatThrownBy(() -> executor.submit(new FundCommand("bob", 1)))
+                .isInstanceOf(RejectedExecutionException.class));
+        releaseBlocker.countDown();
+        stopped.get(5, TimeUnit.SECONDS);
+        
+        // Then - everything accepted before shutdown was applied
+        assertThat(blocker.get().isSuccess()).isTrue();
+        for (CompletableFuture<LedgerOutcome> result : queued) {
+            assertThat(result.get().isSuccess()).isTrue();
+        }
+        assertThat(amountsByWallet.get("alice")).containsExactly(1L, 2L, 3L, 4L, 5L);
+        executor = null;
+    }
+    
+    private WalletLaneExecutor start(int laneCount, int maxBatch, int queueCapacity) {
+        when(walletService.applyBatch(anyList())).thenAnswer(invocation -> {
+            List<LedgerCommand> commands = invocation.getArgument(0);
+            List<String> walletIds = new ArrayList<>();
+            commands.forEach(command -> walletIds.add(command.getRoutingWalletId()));
+            batches.add(walletIds);
+            
+            if (walletIds.contains("blocker")) {
+                blockerEntered.countDown();
+                releaseBlocker.await();
+            }
+            if (walletIds.contains("poison")) {
+                throw new IllegalStateException("poisoned");
+            }
+            
+            List<LedgerOutcome> outcomes = new ArrayList<>();
+            for (LedgerCommand command : commands) {
+                String walletId = command.getRoutingWalletId();
+                threadsByWallet.computeIfAbsent(walletId, id -> new CopyOnWriteArrayList<>())
+                    .add(Thread.currentThread().getName());
+                amountsByWallet.computeIfAbsent(walletId, id -> new CopyOnWriteArrayList<>())
+                    .add(command.getAmount());
+                outcomes.add(LedgerOutcome.completed(command, "tx", new Wallet(walletId, "user")));
+            }
+            return outcomes;
+        });
+        
+        WalletLaneExecutor started = new WalletLaneExecutor(walletService, laneCount, maxBatch, queueCapacity,
+            Duration.ofMillis(50), Duration.ofSeconds(10));
+        started.start();
+        return started;
+    }
+}